@@ -0,0 +1,18 @@
+package dev.adam.spigotkit.bench;
+
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+
+/**
+ * Plugin instance for benchmarks, created through JavaPlugin's testing
+ * constructor instead of a plugin class loader.
+ */
+public final class BenchPlugin extends JavaPlugin {
+
+    BenchPlugin(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
+}
@@ -0,0 +1,173 @@
+package dev.adam.spigotkit.bench;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Minimal Bukkit stand-ins built from {@link Proxy}: just enough of
+ * {@link Server}, {@link Plugin} and {@link Player} for SpigotKit to run
+ * outside a server. Unused methods return {@code null}, {@code 0} or
+ * {@code false}.
+ */
+final class BukkitStubs {
+
+    private static final Logger LOGGER = Logger.getLogger("SpigotKit-Bench");
+    private static final Map<String, PluginCommand> COMMANDS = new HashMap<String, PluginCommand>();
+    private static final Server SERVER = createServer();
+
+    static {
+        LOGGER.setLevel(Level.WARNING);
+        try {
+            Bukkit.setServer(SERVER);
+        } catch (UnsupportedOperationException ignored) {
+            // Already set in this JVM.
+        }
+    }
+
+    private BukkitStubs() {
+    }
+
+    static Server server() {
+        return SERVER;
+    }
+
+    /**
+     * A plugin whose data folder is {@code dataFolder}.
+     */
+    static BenchPlugin plugin(File dataFolder) {
+        @SuppressWarnings("deprecation")
+        JavaPluginLoader loader = new JavaPluginLoader(SERVER);
+        PluginDescriptionFile description = new PluginDescriptionFile("Bench", "1.0", BenchPlugin.class.getName());
+        return new BenchPlugin(loader, description, dataFolder, new File(dataFolder, "Bench.jar"));
+    }
+
+    /**
+     * Declares a command as if it were in {@code plugin.yml}.
+     */
+    static PluginCommand declareCommand(String name, Plugin owner) {
+        try {
+            Constructor<PluginCommand> constructor = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
+            constructor.setAccessible(true);
+            PluginCommand command = constructor.newInstance(name, owner);
+            COMMANDS.put(name, command);
+            return command;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create PluginCommand", e);
+        }
+    }
+
+    /**
+     * An online player with every permission and no-op messaging.
+     */
+    static Player player(String name) {
+        UUID id = UUID.nameUUIDFromBytes(name.getBytes());
+        return proxy(Player.class, (method, args) -> {
+            switch (method) {
+                case "getName":
+                    return name;
+                case "getUniqueId":
+                    return id;
+                case "getLocale":
+                    return "en_us";
+                case "hasPermission":
+                case "isOp":
+                case "isOnline":
+                    return true;
+                case "getServer":
+                    return SERVER;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static Server createServer() {
+        return proxy(Server.class, (method, args) -> {
+            switch (method) {
+                case "getLogger":
+                    return LOGGER;
+                case "getName":
+                    return "Bench";
+                case "getVersion":
+                case "getBukkitVersion":
+                    return "bench";
+                case "getPluginCommand":
+                    return COMMANDS.get(args[0]);
+                case "getOnlinePlayers":
+                    return Collections.emptyList();
+                case "isPrimaryThread":
+                    return true;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    case "equals":
+                        return self == args[0];
+                    default:
+                        return type.getSimpleName() + "Stub";
+                }
+            }
+            Object result = handler.invoke(method.getName(), args);
+            if (result == null && method.getReturnType().isPrimitive()) {
+                return defaultValue(method.getReturnType());
+            }
+            return result;
+        });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == void.class) {
+            return null;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0D;
+        }
+        if (type == float.class) {
+            return 0.0F;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,57 @@
+package dev.adam.spigotkit.bench;
+
+import dev.adam.spigotkit.core.ColorTemplate;
+import dev.adam.spigotkit.core.ColorUtil;
+import org.bukkit.ChatColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Color translation: cached constants, cache misses, precompiled
+ * templates, and Bukkit's translator as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorBenchmark {
+
+    private static final String CONSTANT = "&cYou do not have permission to do that. &7(&#ff8800rank&7)";
+    private static final ColorTemplate TEMPLATE = ColorUtil.compile("&e{player} &7joined the game &8({count} online)");
+
+    private int counter;
+
+    @Benchmark
+    public String colorConstant() {
+        return ColorUtil.color(CONSTANT);
+    }
+
+    /**
+     * A different string every call, so every call misses the cache.
+     */
+    @Benchmark
+    public String colorDynamic() {
+        return ColorUtil.color("&aBalance: &f" + counter++);
+    }
+
+    @Benchmark
+    public String templateRender() {
+        return TEMPLATE.render("Notch", 42);
+    }
+
+    @Benchmark
+    public String bukkitTranslate() {
+        return ChatColor.translateAlternateColorCodes('&', CONSTANT);
+    }
+}
@@ -0,0 +1,121 @@
+package dev.adam.spigotkit.bench;
+
+import dev.adam.spigotkit.commands.Args;
+import dev.adam.spigotkit.commands.CommandManager;
+import dev.adam.spigotkit.commands.CommandSpec;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command routing and tab completion through the executor that
+ * {@link CommandManager} installs on a {@code plugin.yml} command.
+ *
+ * <ul>
+ *   <li>{@code wide}: 256 sibling subcommands, each permission-checked</li>
+ *   <li>{@code deep}: 8 nested subcommand levels ending in a typed argument</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandDispatchBenchmark {
+
+    private static final int WIDTH = 256;
+    private static final int DEPTH = 8;
+
+    private static final String[] NO_ARGS = new String[0];
+
+    static volatile Object sink;
+
+    @Param({"wide", "deep"})
+    public String shape;
+
+    private CommandExecutor executor;
+    private TabCompleter completer;
+    private Command command;
+    private Player player;
+    private String[] execArgs;
+    private String[] tabArgs;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchPlugin plugin = BukkitStubs.plugin(Files.createTempDirectory("spigotkit-bench").toFile());
+        PluginCommand pluginCommand = BukkitStubs.declareCommand("bench", plugin);
+        CommandSpec.Builder root = CommandSpec.create("bench");
+        if ("wide".equals(shape)) {
+            for (int i = 0; i < WIDTH; i++) {
+                root.sub("sub" + i, sub -> sub.permission("bench.sub").exec(ctx -> sink = ctx.arg(0)));
+            }
+            execArgs = new String[]{"sub200", "x"};
+            tabArgs = new String[]{"sub1"};
+        } else {
+            nest(root, 0);
+            execArgs = new String[DEPTH + 1];
+            tabArgs = new String[DEPTH + 1];
+            for (int i = 0; i < DEPTH; i++) {
+                execArgs[i] = "level" + i;
+                tabArgs[i] = "level" + i;
+            }
+            execArgs[DEPTH] = "32";
+            tabArgs[DEPTH] = "";
+        }
+
+        CommandManager manager = new CommandManager(plugin);
+        manager.register(root.build());
+        executor = pluginCommand.getExecutor();
+        completer = pluginCommand.getTabCompleter();
+        command = pluginCommand;
+        player = BukkitStubs.player("Bench");
+    }
+
+    private static void nest(CommandSpec.Builder builder, int depth) {
+        if (depth == DEPTH) {
+            builder.arg("amount", Args.intRange(1, 64)).exec(ctx -> sink = ctx.get("amount"));
+            return;
+        }
+        builder.sub("level" + depth, sub -> nest(sub, depth + 1));
+        for (int i = 0; i < 4; i++) {
+            builder.sub("other" + depth + "_" + i, sub -> sub.exec(ctx -> sink = ctx));
+        }
+    }
+
+    @Benchmark
+    public boolean dispatch() {
+        return executor.onCommand(player, command, "bench", execArgs);
+    }
+
+    /**
+     * {@code /bench} with no arguments: renders (cached) help.
+     */
+    @Benchmark
+    public boolean dispatchHelp() {
+        return executor.onCommand(player, command, "bench", NO_ARGS);
+    }
+
+    @Benchmark
+    public List<String> tab() {
+        return completer.onTabComplete(player, command, "bench", tabArgs);
+    }
+}
@@ -0,0 +1,105 @@
+package dev.adam.spigotkit.bench;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import dev.adam.spigotkit.config.Format;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Generates config files for the config benchmarks.
+ */
+final class ConfigFiles {
+
+    private ConfigFiles() {
+    }
+
+    /**
+     * Path {@code s.s...key} with {@code depth} segments in total.
+     */
+    static String nestedPath(int depth, String key) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i < depth; i++) {
+            sb.append("s.");
+        }
+        return sb.append(key).toString();
+    }
+
+    /**
+     * Writes {@code depth} nested sections named {@code s}, each holding
+     * {@code keys} int values {@code k0 = 0, k1 = 1, ...}.
+     */
+    static void writeNested(File folder, String baseName, Format format, int depth, int keys) throws IOException {
+        if (format == Format.JSON) {
+            JsonObject root = new JsonObject();
+            JsonObject section = root;
+            for (int level = 1; level <= depth; level++) {
+                for (int k = 0; k < keys; k++) {
+                    section.addProperty("k" + k, k);
+                }
+                if (level < depth) {
+                    JsonObject child = new JsonObject();
+                    section.add("s", child);
+                    section = child;
+                }
+            }
+            writeJson(new File(folder, baseName + ".json"), root);
+        } else {
+            YamlConfiguration yaml = new YamlConfiguration();
+            for (int level = 1; level <= depth; level++) {
+                for (int k = 0; k < keys; k++) {
+                    yaml.set(nestedPath(level, "k" + k), k);
+                }
+            }
+            yaml.save(new File(folder, baseName + ".yml"));
+        }
+    }
+
+    /**
+     * Writes {@code players.p<n>} sections with a name, score and flag.
+     */
+    static void writePlayers(File folder, String baseName, Format format, int entries) throws IOException {
+        if (format == Format.JSON) {
+            JsonObject players = new JsonObject();
+            for (int i = 0; i < entries; i++) {
+                JsonObject player = new JsonObject();
+                player.addProperty("name", "Player" + i);
+                player.addProperty("score", i * 7L);
+                player.addProperty("online", i % 3 == 0);
+                players.add("p" + i, player);
+            }
+            JsonObject root = new JsonObject();
+            root.add("players", players);
+            writeJson(new File(folder, baseName + ".json"), root);
+        } else {
+            YamlConfiguration yaml = new YamlConfiguration();
+            for (int i = 0; i < entries; i++) {
+                yaml.set("players.p" + i + ".name", "Player" + i);
+                yaml.set("players.p" + i + ".score", i * 7L);
+                yaml.set("players.p" + i + ".online", i % 3 == 0);
+            }
+            yaml.save(new File(folder, baseName + ".yml"));
+        }
+    }
+
+    private static void writeJson(File file, JsonObject root) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            new Gson().toJson(root, writer);
+        }
+    }
+
+    static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
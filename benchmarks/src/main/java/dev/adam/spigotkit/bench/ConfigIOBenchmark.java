@@ -0,0 +1,73 @@
+package dev.adam.spigotkit.bench;
+
+import dev.adam.spigotkit.config.Config;
+import dev.adam.spigotkit.config.Format;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code reload()} and {@code save()} on large, flat-ish configs
+ * ({@code players.<n>.name/score/online}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigIOBenchmark {
+
+    @Param({"YAML", "JSON"})
+    public String format;
+
+    @Param({"1000", "20000"})
+    public int entries;
+
+    private File folder;
+    private Config config;
+    private int counter;
+
+    @Setup
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("spigotkit-bench").toFile();
+        Format type = Format.valueOf(format);
+        ConfigFiles.writePlayers(folder, "players", type, entries);
+        config = Config.load(BukkitStubs.plugin(folder), "players", type);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ConfigFiles.delete(folder);
+    }
+
+    @Benchmark
+    public Config reload() {
+        config.reload();
+        return config;
+    }
+
+    /**
+     * One changed value, then a full save.
+     */
+    @Benchmark
+    public Config save() {
+        config.set("players.p0.score", counter++);
+        config.save();
+        return config;
+    }
+}
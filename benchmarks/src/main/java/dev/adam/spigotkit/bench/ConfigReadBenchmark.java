@@ -0,0 +1,88 @@
+package dev.adam.spigotkit.bench;
+
+import dev.adam.spigotkit.config.Config;
+import dev.adam.spigotkit.config.ConfigPath;
+import dev.adam.spigotkit.config.ConfigSnapshot;
+import dev.adam.spigotkit.config.Format;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typed getters on YAML and JSON configs at different path depths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigReadBenchmark {
+
+    @Param({"YAML", "JSON"})
+    public String format;
+
+    @Param({"1", "4", "8"})
+    public int depth;
+
+    private File folder;
+    private Config config;
+    private ConfigSnapshot snapshot;
+    private String path;
+    private ConfigPath compiledPath;
+    private String missingPath;
+
+    @Setup
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("spigotkit-bench").toFile();
+        Format type = Format.valueOf(format);
+        ConfigFiles.writeNested(folder, "bench", type, depth, 20);
+        config = Config.load(BukkitStubs.plugin(folder), "bench", type);
+        path = ConfigFiles.nestedPath(depth, "k7");
+        compiledPath = ConfigPath.of(path);
+        missingPath = ConfigFiles.nestedPath(depth, "missing");
+        snapshot = config.snapshot();
+        if (config.getInt(path) != 7) {
+            throw new IllegalStateException("Unexpected value at " + path);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ConfigFiles.delete(folder);
+    }
+
+    @Benchmark
+    public int getInt() {
+        return config.getInt(path);
+    }
+
+    @Benchmark
+    public int getIntCompiledPath() {
+        return config.getInt(compiledPath);
+    }
+
+    @Benchmark
+    public String getStringMissing() {
+        return config.getString(missingPath, "default");
+    }
+
+    @Benchmark
+    public int snapshotGetInt() {
+        return snapshot.getInt(path);
+    }
+}
@@ -1,22 +1,85 @@
 package dev.adam.spigotkit;
 
+import dev.adam.spigotkit.commands.Args;
+import dev.adam.spigotkit.commands.CommandContext;
+import dev.adam.spigotkit.commands.CommandManager;
+import dev.adam.spigotkit.commands.CommandMetrics;
+import dev.adam.spigotkit.commands.CommandSpec;
+import dev.adam.spigotkit.commands.CommandStats;
+import dev.adam.spigotkit.commands.LatencyHistogram;
+import dev.adam.spigotkit.config.Config;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.List;
+import java.util.Locale;
+
 /**
  * SpigotKit is a small helper library.
  *
- * This plugin itself does not register any commands – it just
- * exposes the library classes for other plugins to depend on.
+ * This plugin mostly exposes the library classes for other plugins to
+ * depend on. Its only command is {@code /spigotkit stats}, which shows
+ * the command metrics of plugins that enabled them.
  */
 public final class SpigotKit extends JavaPlugin {
 
+    private static final int STATS_LIMIT = 10;
+
     @Override
     public void onEnable() {
+        CommandManager commands = new CommandManager(this);
+        commands.register(CommandSpec.create("spigotkit")
+                .permission("spigotkit.admin")
+                .sub("stats", sub -> sub
+                        .description("Command timings of plugins with metrics enabled")
+                        .optionalArg("plugin", Args.word())
+                        .exec(this::showStats))
+                .sub("reset", sub -> sub
+                        .description("Clear all command metrics")
+                        .exec(ctx -> {
+                            for (CommandMetrics metrics : CommandMetrics.all()) {
+                                metrics.reset();
+                            }
+                            ctx.reply("&aCommand metrics cleared.");
+                        }))
+                .build());
+    }
 
+    private void showStats(CommandContext ctx) {
+        String filter = ctx.get("plugin");
+        List<CommandMetrics> all = CommandMetrics.all();
+        if (all.isEmpty()) {
+            ctx.reply("&7No plugin has command metrics enabled.");
+            return;
+        }
+        for (CommandMetrics metrics : all) {
+            String name = metrics.plugin().getName();
+            if (filter != null && !name.equalsIgnoreCase(filter)) {
+                continue;
+            }
+            ctx.reply("&e" + name + " &7(slowest first)");
+            List<CommandStats> stats = metrics.snapshot();
+            for (int i = 0; i < stats.size() && i < STATS_LIMIT; i++) {
+                CommandStats s = stats.get(i);
+                LatencyHistogram exec = s.execution();
+                ctx.reply("&f/" + s.path()
+                        + " &7calls &f" + s.invocations()
+                        + " &7fail &f" + s.failures()
+                        + " &7denied &f" + s.denials()
+                        + " &7p50 &f" + millis(exec.percentileNanos(50.0D))
+                        + " &7p99 &f" + millis(exec.percentileNanos(99.0D))
+                        + " &7max &f" + millis(exec.maxNanos())
+                        + " &7tab p99 &f" + millis(s.tabCompletion().percentileNanos(99.0D)));
+            }
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0D);
     }
 
     @Override
     public void onDisable() {
-
+        Config.flushAll();
+        Config.shutdownIO();
     }
 }
@@ -0,0 +1,40 @@
+package dev.adam.spigotkit.commands;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses one command argument into a typed value.
+ *
+ * <p>Parsers report bad input by returning {@code null} instead of
+ * throwing, so a typo costs no more than a successful parse. See
+ * {@link Args} for the built-in parsers.</p>
+ *
+ * @param <T> parsed value type
+ */
+public interface ArgParser<T> {
+
+    /**
+     * @param input raw argument, never {@code null}
+     * @return the parsed value, or {@code null} if {@code input} is invalid
+     */
+    T parse(String input);
+
+    /**
+     * Suggestions for a partially typed argument. Callers filter the
+     * result by {@code prefix}, so returning every candidate is fine.
+     */
+    default List<String> complete(CommandSender sender, String prefix) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Whether this argument swallows the rest of the input (only
+     * meaningful for the last argument).
+     */
+    default boolean greedy() {
+        return false;
+    }
+}
@@ -0,0 +1,454 @@
+package dev.adam.spigotkit.commands;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Built-in {@link ArgParser}s for {@link CommandSpec.Builder#arg}.
+ *
+ * <pre>
+ * CommandSpec.create("give")
+ *     .arg("target", Args.player())
+ *     .arg("amount", Args.intRange(1, 64))
+ *     .exec(ctx -> {
+ *         Player target = ctx.get("target");
+ *         int amount = ctx.getInt("amount");
+ *         ...
+ *     });
+ * </pre>
+ */
+public final class Args {
+
+    private static final ArgParser<Integer> INTEGER = intRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    private static final ArgParser<Long> LONG = new LongParser();
+    private static final ArgParser<Double> NUMBER = new NumberParser();
+    private static final ArgParser<String> WORD = input -> input;
+    private static final ArgParser<String> TEXT = new TextParser();
+    private static final ArgParser<Player> PLAYER = new PlayerParser();
+    private static final ArgParser<Duration> DURATION = new DurationParser();
+    private static final ArgParser<Boolean> BOOL = new BoolParser();
+
+    private Args() {
+    }
+
+    public static ArgParser<Integer> integer() {
+        return INTEGER;
+    }
+
+    /**
+     * An int between {@code min} and {@code max}, inclusive.
+     */
+    public static ArgParser<Integer> intRange(int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("min must not be greater than max");
+        }
+        return new IntParser(min, max);
+    }
+
+    public static ArgParser<Long> longInt() {
+        return LONG;
+    }
+
+    /**
+     * A finite decimal number such as {@code 1}, {@code -2.5} or {@code 1e3}.
+     * Unlike the integer parsers, its values are stored boxed.
+     */
+    public static ArgParser<Double> number() {
+        return NUMBER;
+    }
+
+    /**
+     * A single word, as typed.
+     */
+    public static ArgParser<String> word() {
+        return WORD;
+    }
+
+    /**
+     * The rest of the input, spaces included. Must be the last argument.
+     */
+    public static ArgParser<String> text() {
+        return TEXT;
+    }
+
+    /**
+     * An online player, by exact (case-insensitive) name.
+     */
+    public static ArgParser<Player> player() {
+        return PLAYER;
+    }
+
+    /**
+     * An enum constant, case-insensitive. Completions are the lowercased
+     * constant names.
+     */
+    public static <E extends Enum<E>> ArgParser<E> enumArg(Class<E> type) {
+        return new EnumParser<E>(type);
+    }
+
+    /**
+     * A duration such as {@code 30s}, {@code 5m}, {@code 1h30m} or
+     * {@code 2d}. Units: {@code ms}, {@code s}, {@code m}, {@code h},
+     * {@code d}, {@code w}. A bare number means seconds.
+     */
+    public static ArgParser<Duration> duration() {
+        return DURATION;
+    }
+
+    /**
+     * {@code true}/{@code false}, also accepting {@code yes}/{@code no}
+     * and {@code on}/{@code off}.
+     */
+    public static ArgParser<Boolean> bool() {
+        return BOOL;
+    }
+
+    /**
+     * Parses a signed decimal integer without throwing.
+     *
+     * @return {@code fallback} if {@code s} is not a number in {@code [min, max]}
+     */
+    static long parseLong(String s, long min, long max, long fallback) {
+        int len = s.length();
+        if (len == 0 || len > 20) {
+            return fallback;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i = 1;
+            if (len == 1) {
+                return fallback;
+            }
+        }
+        // Accumulate negatively so Long.MIN_VALUE is representable.
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long result = 0L;
+        for (; i < len; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return fallback;
+            }
+            if (result < (limit + digit) / 10) {
+                return fallback;
+            }
+            result = result * 10 - digit;
+        }
+        long value = negative ? result : -result;
+        return value < min || value > max ? fallback : value;
+    }
+
+    /**
+     * Completions from {@code parser} that start with {@code prefix}
+     * (case-insensitive).
+     */
+    static List<String> complete(ArgParser<?> parser, CommandSender sender, String prefix) {
+        List<String> candidates = parser.complete(sender, prefix);
+        if (candidates == null || candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return filter(candidates, prefix);
+    }
+
+    private static List<String> filter(List<String> candidates, String prefix) {
+        String lower = prefix.toLowerCase(Locale.ROOT);
+        List<String> result = new ArrayList<String>();
+        for (String candidate : candidates) {
+            if (candidate.toLowerCase(Locale.ROOT).startsWith(lower)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    private static final class IntParser implements ArgParser<Integer>, NumericArgParser {
+
+        private final int min;
+        private final int max;
+
+        private IntParser(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public Integer parse(String input) {
+            long value = parseLong(input, min, max, Long.MIN_VALUE);
+            return value == Long.MIN_VALUE ? null : Integer.valueOf((int) value);
+        }
+
+        @Override
+        public boolean parseInto(String input, long[] slots, int index) {
+            long value = parseLong(input, min, max, Long.MIN_VALUE);
+            slots[index] = value;
+            return value != Long.MIN_VALUE;
+        }
+
+        @Override
+        public Object box(long slot) {
+            return Integer.valueOf((int) slot);
+        }
+
+        @Override
+        public List<String> complete(CommandSender sender, String prefix) {
+            if (min >= 0 && (long) max - min < 10L) {
+                List<String> values = new ArrayList<String>();
+                for (int i = min; i <= max; i++) {
+                    values.add(Integer.toString(i));
+                }
+                return values;
+            }
+            return Collections.emptyList();
+        }
+    }
+
+    private static final class LongParser implements ArgParser<Long>, NumericArgParser {
+
+        @Override
+        public Long parse(String input) {
+            if ("-9223372036854775808".equals(input)) {
+                return Long.MIN_VALUE;
+            }
+            long value = parseLong(input, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+            return value == Long.MIN_VALUE ? null : Long.valueOf(value);
+        }
+
+        @Override
+        public boolean parseInto(String input, long[] slots, int index) {
+            if ("-9223372036854775808".equals(input)) {
+                slots[index] = Long.MIN_VALUE;
+                return true;
+            }
+            long value = parseLong(input, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+            slots[index] = value;
+            return value != Long.MIN_VALUE;
+        }
+
+        @Override
+        public Object box(long slot) {
+            return Long.valueOf(slot);
+        }
+    }
+
+    private static final class NumberParser implements ArgParser<Double> {
+
+        @Override
+        public Double parse(String input) {
+            if (!isDecimal(input)) {
+                return null;
+            }
+            double value = Double.parseDouble(input);
+            return Double.isInfinite(value) ? null : Double.valueOf(value);
+        }
+
+        /**
+         * {@code [+-]digits[.digits][(e|E)[+-]digits]}, with at least one
+         * mantissa digit. Anything matching is safe to hand to
+         * {@link Double#parseDouble}.
+         */
+        private static boolean isDecimal(String s) {
+            int len = s.length();
+            int i = 0;
+            if (i < len && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                i++;
+            }
+            int digits = 0;
+            while (i < len && isDigit(s.charAt(i))) {
+                i++;
+                digits++;
+            }
+            if (i < len && s.charAt(i) == '.') {
+                i++;
+                while (i < len && isDigit(s.charAt(i))) {
+                    i++;
+                    digits++;
+                }
+            }
+            if (digits == 0) {
+                return false;
+            }
+            if (i < len && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+                i++;
+                if (i < len && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                    i++;
+                }
+                int exponent = 0;
+                while (i < len && isDigit(s.charAt(i))) {
+                    i++;
+                    exponent++;
+                }
+                if (exponent == 0) {
+                    return false;
+                }
+            }
+            return i == len;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+
+    private static final class TextParser implements ArgParser<String> {
+
+        @Override
+        public String parse(String input) {
+            return input;
+        }
+
+        @Override
+        public boolean greedy() {
+            return true;
+        }
+    }
+
+    private static final class PlayerParser implements ArgParser<Player> {
+
+        @Override
+        public Player parse(String input) {
+            return Bukkit.getPlayerExact(input);
+        }
+
+        @Override
+        public List<String> complete(CommandSender sender, String prefix) {
+            List<String> names = new ArrayList<String>();
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                names.add(player.getName());
+            }
+            return names;
+        }
+    }
+
+    private static final class EnumParser<E extends Enum<E>> implements ArgParser<E> {
+
+        private final Map<String, E> byName = new HashMap<String, E>();
+        private final List<String> names;
+
+        private EnumParser(Class<E> type) {
+            List<String> list = new ArrayList<String>();
+            for (E constant : type.getEnumConstants()) {
+                String key = constant.name().toLowerCase(Locale.ROOT);
+                byName.put(key, constant);
+                list.add(key);
+            }
+            this.names = Collections.unmodifiableList(list);
+        }
+
+        @Override
+        public E parse(String input) {
+            E exact = byName.get(input);
+            return exact != null ? exact : byName.get(input.toLowerCase(Locale.ROOT));
+        }
+
+        @Override
+        public List<String> complete(CommandSender sender, String prefix) {
+            return names;
+        }
+    }
+
+    private static final class DurationParser implements ArgParser<Duration> {
+
+        private static final List<String> EXAMPLES = Collections.unmodifiableList(Arrays.asList("30s", "5m", "1h", "1d"));
+
+        @Override
+        public Duration parse(String input) {
+            int len = input.length();
+            if (len == 0) {
+                return null;
+            }
+            long totalMillis = 0L;
+            int i = 0;
+            while (i < len) {
+                long amount = 0L;
+                int start = i;
+                while (i < len && input.charAt(i) >= '0' && input.charAt(i) <= '9') {
+                    amount = amount * 10 + (input.charAt(i) - '0');
+                    if (amount > 1_000_000_000L) {
+                        return null;
+                    }
+                    i++;
+                }
+                if (i == start) {
+                    return null;
+                }
+                long unit;
+                if (i == len) {
+                    unit = start == 0 ? 1000L : -1L;
+                } else {
+                    char c = Character.toLowerCase(input.charAt(i++));
+                    if (c == 'm' && i < len && Character.toLowerCase(input.charAt(i)) == 's') {
+                        i++;
+                        unit = 1L;
+                    } else {
+                        unit = unitMillis(c);
+                    }
+                }
+                if (unit < 0L || amount * unit > Long.MAX_VALUE - totalMillis) {
+                    return null;
+                }
+                totalMillis += amount * unit;
+            }
+            return Duration.ofMillis(totalMillis);
+        }
+
+        private static long unitMillis(char c) {
+            switch (c) {
+                case 's':
+                    return 1000L;
+                case 'm':
+                    return 60_000L;
+                case 'h':
+                    return 3_600_000L;
+                case 'd':
+                    return 86_400_000L;
+                case 'w':
+                    return 604_800_000L;
+                default:
+                    return -1L;
+            }
+        }
+
+        @Override
+        public List<String> complete(CommandSender sender, String prefix) {
+            return EXAMPLES;
+        }
+    }
+
+    private static final class BoolParser implements ArgParser<Boolean> {
+
+        private static final List<String> VALUES = Collections.unmodifiableList(Arrays.asList("true", "false"));
+
+        @Override
+        public Boolean parse(String input) {
+            switch (input.toLowerCase(Locale.ROOT)) {
+                case "true":
+                case "yes":
+                case "on":
+                    return Boolean.TRUE;
+                case "false":
+                case "no":
+                case "off":
+                    return Boolean.FALSE;
+                default:
+                    return null;
+            }
+        }
+
+        @Override
+        public List<String> complete(CommandSender sender, String prefix) {
+            return VALUES;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package dev.adam.spigotkit.commands;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs {@link AsyncTabCompleterFn}s on the worker pool.
+ *
+ * <p>Keeps at most one in-flight request and one cached result per sender.
+ * Both maps have weak keys, so senders that log out are dropped with their
+ * {@code Player} object.</p>
+ */
+final class AsyncCompletions {
+
+    private final Map<CommandSender, CompletableFuture<List<String>>> inFlight =
+            Collections.synchronizedMap(new WeakHashMap<CommandSender, CompletableFuture<List<String>>>());
+    private final Map<CommandSender, Cached> cache =
+            Collections.synchronizedMap(new WeakHashMap<CommandSender, Cached>());
+
+    /**
+     * Starts a completion, cancelling the sender's previous one.
+     *
+     * @param input key describing the typed command line, used for caching
+     */
+    CompletableFuture<List<String>> start(AsyncTabCompleterFn completer, CommandContext ctx, String input) {
+        CommandSender sender = ctx.sender();
+        CompletableFuture<List<String>> result = new CompletableFuture<List<String>>();
+        CompletableFuture<List<String>> previous = inFlight.put(sender, result);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        try {
+            CommandWorkers.executor().execute(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    CompletableFuture<List<String>> future = completer.complete(ctx);
+                    if (future == null) {
+                        result.complete(Collections.<String>emptyList());
+                        return;
+                    }
+                    future.whenComplete((list, error) -> {
+                        if (error != null) {
+                            result.completeExceptionally(error);
+                        } else {
+                            result.complete(list != null ? list : Collections.<String>emptyList());
+                        }
+                    });
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.complete(Collections.<String>emptyList());
+        }
+        result.whenComplete((list, error) -> {
+            inFlight.remove(sender, result);
+            if (error == null) {
+                cache.put(sender, new Cached(input, list));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Synchronous fallback: returns the cached result for exactly this
+     * input (or an empty list) and refreshes it in the background, so the
+     * next keystroke sees fresh suggestions.
+     */
+    List<String> cachedOrStart(AsyncTabCompleterFn completer, CommandContext ctx, String input) {
+        Cached cached = cache.get(ctx.sender());
+        start(completer, ctx, input);
+        if (cached != null && cached.input.equals(input)) {
+            return cached.result;
+        }
+        return Collections.emptyList();
+    }
+
+    private static final class Cached {
+
+        private final String input;
+        private final List<String> result;
+
+        private Cached(String input, List<String> result) {
+            this.input = input;
+            this.result = result;
+        }
+    }
+}
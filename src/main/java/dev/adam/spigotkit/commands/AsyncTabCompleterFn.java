@@ -0,0 +1,23 @@
+package dev.adam.spigotkit.commands;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tab completer for expensive suggestion sources (databases, region indexes).
+ *
+ * <p>Called on a SpigotKit worker thread, never on the main server thread,
+ * so implementations must not touch the Bukkit world API. When the same
+ * sender asks for completions again before the previous request finished,
+ * the previous future is cancelled.</p>
+ */
+public interface AsyncTabCompleterFn {
+
+    /**
+     * Compute tab completion suggestions for the given context.
+     *
+     * @param ctx command context
+     * @return future of the suggestions; may complete with {@code null} for none
+     */
+    CompletableFuture<List<String>> complete(CommandContext ctx);
+}
@@ -1,27 +1,58 @@
 package dev.adam.spigotkit.commands;
 
 import dev.adam.spigotkit.core.ColorUtil;
+import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 /**
  * Context passed to command executors and tab completers.
  */
 public final class CommandContext {
 
+    /**
+     * Placeholder in the value slots for an argument kept in {@link #numbers}.
+     */
+    static final Object NUMERIC = new Object();
+
     private final Plugin plugin;
     private final CommandSender sender;
     private final String label;
     private final String[] args;
+    private final int offset;
     private final CommandSpec commandSpec;
+    private final Object[] values;
+    private final long[] numbers;
+    private String[] argsCopy;
 
     public CommandContext(Plugin plugin, CommandSender sender, String label, String[] args, CommandSpec commandSpec) {
+        this(plugin, sender, label, args, 0, commandSpec);
+    }
+
+    /**
+     * Creates a context whose arguments are a view of {@code args} starting
+     * at {@code offset}, e.g. past the subcommand names that were consumed
+     * while routing. The array is not copied.
+     */
+    public CommandContext(Plugin plugin, CommandSender sender, String label, String[] args, int offset, CommandSpec commandSpec) {
+        this(plugin, sender, label, args, offset, commandSpec, null, null);
+    }
+
+    CommandContext(Plugin plugin, CommandSender sender, String label, String[] args, int offset, CommandSpec commandSpec,
+                   Object[] values, long[] numbers) {
         this.plugin = plugin;
         this.sender = sender;
         this.label = label;
         this.args = args;
+        this.offset = Math.min(Math.max(offset, 0), args.length);
         this.commandSpec = commandSpec;
+        this.values = values;
+        this.numbers = numbers;
     }
 
     public Plugin plugin() {
@@ -54,31 +85,43 @@ public final class CommandContext {
         return label;
     }
 
+    /**
+     * Returns the arguments after any subcommand names. Prefer
+     * {@link #arg(int)} / {@link #argsLen()} in hot code: for subcommands
+     * this method has to copy the arguments into a new array (once).
+     */
     public String[] args() {
-        return args;
+        if (offset == 0) {
+            return args;
+        }
+        if (argsCopy == null) {
+            argsCopy = Arrays.copyOfRange(args, offset, args.length);
+        }
+        return argsCopy;
     }
 
     public int argsLen() {
-        return args.length;
+        return args.length - offset;
     }
 
     public String arg(int index) {
-        if (index < 0 || index >= args.length) {
+        if (index < 0 || index >= args.length - offset) {
             return null;
         }
-        return args[index];
+        return args[offset + index];
     }
 
     public String joinArgs(int fromIndex) {
         if (fromIndex < 0) {
             fromIndex = 0;
         }
-        if (fromIndex >= args.length) {
+        int from = offset + fromIndex;
+        if (from >= args.length) {
             return "";
         }
         StringBuilder sb = new StringBuilder();
-        for (int i = fromIndex; i < args.length; i++) {
-            if (i > fromIndex) {
+        for (int i = from; i < args.length; i++) {
+            if (i > from) {
                 sb.append(' ');
             }
             sb.append(args[i]);
@@ -86,10 +129,100 @@ public final class CommandContext {
         return sb.toString();
     }
 
+    /**
+     * Returns the parsed value of a typed argument declared with
+     * {@link CommandSpec.Builder#arg}, or {@code null} if it is optional
+     * and was not given. Integer arguments are stored unboxed; read them
+     * with {@link #getInt} / {@link #getLong} to avoid boxing here.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name) {
+        int i = slot(name);
+        if (i < 0) {
+            return null;
+        }
+        Object value = values[i];
+        if (value == NUMERIC) {
+            return (T) ((NumericArgParser) commandSpec.argParser(i)).box(numbers[i]);
+        }
+        return (T) value;
+    }
+
+    private int slot(String name) {
+        return values == null ? -1 : commandSpec.argIndex(name);
+    }
+
+    public <T> T get(String name, T def) {
+        T value = get(name);
+        return value != null ? value : def;
+    }
+
+    public boolean has(String name) {
+        int i = slot(name);
+        return i >= 0 && values[i] != null;
+    }
+
+    public int getInt(String name) {
+        return (int) getLong(name);
+    }
+
+    public long getLong(String name) {
+        int i = slot(name);
+        if (i >= 0 && values[i] == NUMERIC) {
+            return numbers[i];
+        }
+        Object value = i < 0 ? null : values[i];
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    public double getDouble(String name) {
+        int i = slot(name);
+        if (i >= 0 && values[i] == NUMERIC) {
+            return numbers[i];
+        }
+        Object value = i < 0 ? null : values[i];
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0D;
+    }
+
     public CommandSpec spec() {
         return commandSpec;
     }
 
+    /**
+     * Runs {@code task} on the main thread: inline if already there,
+     * otherwise on the next tick. Use from {@code execAsync} executors for
+     * Bukkit API calls.
+     */
+    public CompletableFuture<Void> sync(Runnable task) {
+        return supplySync(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Computes a value on the main thread: inline if already there,
+     * otherwise on the next tick.
+     */
+    public <T> CompletableFuture<T> supplySync(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<T>();
+        Runnable task = () -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        };
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else if (!plugin.isEnabled()) {
+            future.completeExceptionally(new IllegalStateException("Plugin " + plugin.getName() + " is disabled"));
+        } else {
+            plugin.getServer().getScheduler().runTask(plugin, task);
+        }
+        return future;
+    }
+
     /**
      * Sends a colored message to the sender.
      */
@@ -0,0 +1,121 @@
+package dev.adam.spigotkit.commands;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-sender rate limiter ("generic cell rate algorithm").
+ *
+ * <p>Each sender has a single {@code long}: the theoretical arrival time
+ * (TAT) of its next request, in {@link System#nanoTime()} units. A request
+ * is admitted while it is no more than one window ahead of the TAT, and
+ * pushes the TAT forward by one emission interval. Updates are plain CAS
+ * loops; no locks are taken on the command path.</p>
+ *
+ * <p>A sender whose TAT is in the past is indistinguishable from a new
+ * one, so such entries are swept lazily, at most once per window.</p>
+ */
+final class CommandLimiter {
+
+    private static final long MIN_SWEEP_INTERVAL = 30_000_000_000L;
+
+    private final long interval;
+    private final long tolerance;
+    private final long sweepInterval;
+    private final ConcurrentHashMap<UUID, AtomicLong> arrivals = new ConcurrentHashMap<UUID, AtomicLong>();
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param permits     requests allowed per window, at least 1
+     * @param windowNanos window length in nanoseconds
+     */
+    CommandLimiter(int permits, long windowNanos) {
+        if (permits < 1 || windowNanos <= 0L) {
+            throw new IllegalArgumentException("Rate limit needs at least one permit per positive duration");
+        }
+        this.interval = Math.max(1L, windowNanos / permits);
+        this.tolerance = windowNanos - interval;
+        this.sweepInterval = Math.max(windowNanos, MIN_SWEEP_INTERVAL);
+    }
+
+    /**
+     * Takes a permit for {@code id}.
+     *
+     * @return 0 if admitted, otherwise nanoseconds until the next permit
+     */
+    long acquire(UUID id) {
+        long now = System.nanoTime();
+        sweepIfDue(now);
+        while (true) {
+            AtomicLong cell = arrivals.get(id);
+            if (cell == null) {
+                cell = new AtomicLong(now);
+                AtomicLong previous = arrivals.putIfAbsent(id, cell);
+                if (previous != null) {
+                    cell = previous;
+                }
+            }
+            long tat = cell.get();
+            long base = tat - now > 0L ? tat : now;
+            long wait = base - tolerance - now;
+            if (wait > 0L) {
+                return wait;
+            }
+            if (!cell.compareAndSet(tat, base + interval)) {
+                continue;
+            }
+            if (arrivals.get(id) == cell) {
+                return 0L;
+            }
+            // Swept between get() and the CAS; retry against the live cell.
+        }
+    }
+
+    /**
+     * Returns a permit taken by {@link #acquire} that ended up unused.
+     */
+    void release(UUID id) {
+        AtomicLong cell = arrivals.get(id);
+        if (cell != null) {
+            cell.addAndGet(-interval);
+        }
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0L || !nextSweep.compareAndSet(due, now + sweepInterval)) {
+            return;
+        }
+        Iterator<Map.Entry<UUID, AtomicLong>> it = arrivals.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, AtomicLong> entry = it.next();
+            AtomicLong cell = entry.getValue();
+            if (cell.get() - now <= 0L && arrivals.remove(entry.getKey(), cell) && cell.get() - now > 0L) {
+                // Admitted a request while being removed; keep its state.
+                arrivals.putIfAbsent(entry.getKey(), cell);
+            }
+        }
+    }
+
+    /**
+     * Takes a permit from every limiter, or from none.
+     *
+     * @return 0 if admitted, otherwise the wait reported by the first
+     *         limiter that refused, in nanoseconds
+     */
+    static long acquireAll(CommandLimiter[] limiters, UUID id) {
+        for (int i = 0; i < limiters.length; i++) {
+            long wait = limiters[i].acquire(id);
+            if (wait > 0L) {
+                for (int j = 0; j < i; j++) {
+                    limiters[j].release(id);
+                }
+                return wait;
+            }
+        }
+        return 0L;
+    }
+}
@@ -12,24 +12,37 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Central entry point for registering and routing commands.
  *
- * <p>Commands must still be declared in {@code plugin.yml}; this manager
- * removes the need for separate executor classes and provides a simple
- * fluent API around {@link CommandSpec}.</p>
+ * <p>Commands declared in {@code plugin.yml} are wired to that entry;
+ * commands that are not declared there are added to the server's command
+ * map at runtime (remove them with {@link #unregisterAll()}). Either way
+ * this manager removes the need for separate executor classes and
+ * provides a simple fluent API around {@link CommandSpec}.</p>
  */
 public final class CommandManager {
 
+    private static final long ASYNC_TAB_TIMEOUT_MILLIS = 500L;
+
     private final Plugin plugin;
     private final Map<String, CommandSpec> commands = new HashMap<String, CommandSpec>();
+    private final Map<String, InternalExecutor> executorsByLabel = new ConcurrentHashMap<String, InternalExecutor>();
+    private final List<DynamicCommand> dynamicCommands = new ArrayList<DynamicCommand>();
+    private final AsyncCompletions asyncCompletions = new AsyncCompletions();
+    private boolean paperHookAttempted;
+    private volatile CommandMetrics metrics;
 
     public CommandManager(Plugin plugin) {
         this.plugin = plugin;
@@ -39,25 +52,126 @@ public final class CommandManager {
         return plugin;
     }
 
+    /**
+     * Start recording invocation counts, failures, permission denials and
+     * execution / tab-completion latency for this manager's commands.
+     * Calling it again returns the existing metrics.
+     */
+    public synchronized CommandMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new CommandMetrics(plugin);
+            CommandMetrics.register(metrics);
+        }
+        return metrics;
+    }
+
+    public synchronized void disableMetrics() {
+        if (metrics != null) {
+            CommandMetrics.unregister(metrics);
+            metrics = null;
+        }
+    }
+
+    /**
+     * Returns the metrics, or {@code null} if they are not enabled.
+     */
+    public CommandMetrics metrics() {
+        return metrics;
+    }
+
     /**
      * Register a command specification.
      * <p>
-     * The command name must match an entry in {@code plugin.yml}.
+     * If the command is declared in {@code plugin.yml} that entry is used.
+     * Otherwise the command is added to the server's command map at
+     * runtime, with the spec's aliases, permission and description, and
+     * online players are resent the command tree. Such commands are
+     * removed again by {@link #unregisterAll()}.
      * </p>
      */
     public void register(CommandSpec spec) {
         String name = spec.name().toLowerCase(Locale.ROOT);
         commands.put(name, spec);
 
+        InternalExecutor executor = new InternalExecutor(spec);
+        List<String> aliases;
         PluginCommand pluginCommand = plugin.getServer().getPluginCommand(name);
-        if (pluginCommand == null) {
-            plugin.getLogger().warning("No plugin.yml command found for '" + name + "'. Skipping registration.");
+        if (pluginCommand != null) {
+            pluginCommand.setExecutor(executor);
+            pluginCommand.setTabCompleter(executor);
+            aliases = pluginCommand.getAliases();
+        } else {
+            DynamicCommand command = new DynamicCommand(plugin, spec, executor, executor);
+            if (!CommandMaps.register(plugin, command)) {
+                plugin.getLogger().warning("Failed to register command '" + name
+                        + "': the server's command map is not accessible. Declare it in plugin.yml instead.");
+                return;
+            }
+            dynamicCommands.add(command);
+            aliases = command.getAliases();
+            CommandMaps.syncToPlayers(plugin);
+        }
+
+        executorsByLabel.put(name, executor);
+        for (String alias : aliases) {
+            executorsByLabel.put(alias.toLowerCase(Locale.ROOT), executor);
+        }
+        if (!paperHookAttempted && usesAsyncCompletion(spec)) {
+            paperHookAttempted = true;
+            PaperTabHook.register(plugin, this::completeBuffer);
+        }
+    }
+
+    /**
+     * Removes every command this manager added to the command map at
+     * runtime (see {@link #register(CommandSpec)}). Call from
+     * {@code onDisable} if commands were registered without
+     * {@code plugin.yml} entries.
+     */
+    public void unregisterAll() {
+        if (dynamicCommands.isEmpty()) {
             return;
         }
+        for (DynamicCommand command : dynamicCommands) {
+            CommandMaps.unregister(plugin, command);
+            commands.remove(command.getName().toLowerCase(Locale.ROOT));
+            executorsByLabel.values().removeIf(executor -> executor == command.executor());
+        }
+        dynamicCommands.clear();
+        CommandMaps.syncToPlayers(plugin);
+    }
 
-        InternalExecutor executor = new InternalExecutor(spec);
-        pluginCommand.setExecutor(executor);
-        pluginCommand.setTabCompleter(executor);
+    private static boolean usesAsyncCompletion(CommandSpec spec) {
+        if (spec.asyncTabCompleter() != null) {
+            return true;
+        }
+        for (CommandSpec sub : spec.subcommands().values()) {
+            if (usesAsyncCompletion(sub)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Paper's async tab event: resolves a raw {@code /label args...} buffer
+     * to one of our commands. Returns {@code null} when the buffer is not
+     * ours or does not end at an async completer.
+     */
+    private List<String> completeBuffer(CommandSender sender, String buffer) throws Exception {
+        String line = buffer.startsWith("/") ? buffer.substring(1) : buffer;
+        int space = line.indexOf(' ');
+        if (space < 0) {
+            return null;
+        }
+        String label = line.substring(0, space);
+        int colon = label.indexOf(':');
+        String key = (colon >= 0 ? label.substring(colon + 1) : label).toLowerCase(Locale.ROOT);
+        InternalExecutor executor = executorsByLabel.get(key);
+        if (executor == null) {
+            return null;
+        }
+        return executor.tabAsync(sender, label, line.substring(space + 1).split(" ", -1));
     }
 
     /**
@@ -70,12 +184,17 @@ public final class CommandManager {
         register(builder.build());
     }
 
+    private static final Object[] NO_VALUES = new Object[0];
+    private static final long[] NO_NUMBERS = new long[0];
+
     private final class InternalExecutor implements CommandExecutor, TabCompleter {
 
         private final CommandSpec rootSpec;
+        private final CommandNode root;
 
         private InternalExecutor(CommandSpec rootSpec) {
             this.rootSpec = rootSpec;
+            this.root = CommandNode.compile(rootSpec);
         }
 
         public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
@@ -83,145 +202,407 @@ public final class CommandManager {
                 dispatch(sender, label, args);
             } catch (Throwable t) {
                 Messages.logCommandError(plugin, rootSpec.name(), t);
-                sender.sendMessage(ColorUtil.color(Messages.error()));
+                sender.sendMessage(Messages.error(sender));
             }
             return true;
         }
 
         private void dispatch(CommandSender sender, String label, String[] args) {
-            CommandSpec targetSpec = rootSpec;
-            String[] effectiveArgs = args;
-
-            if (rootSpec.hasSubcommands() && args.length > 0) {
-                String subName = args[0].toLowerCase(Locale.ROOT);
-                CommandSpec sub = rootSpec.subcommands().get(subName);
-                if (sub != null) {
-                    targetSpec = sub;
-                    if (args.length > 1) {
-                        effectiveArgs = Arrays.copyOfRange(args, 1, args.length);
-                    } else {
-                        effectiveArgs = new String[0];
-                    }
-                } else {
-                    sender.sendMessage(ColorUtil.color(Messages.unknownSubcommand(label)));
-                    showHelp(sender, rootSpec, label);
+            CommandNode node = root;
+            int offset = 0;
+            while (node.hasChildren() && offset < args.length) {
+                // Group nodes guard everything below them, including the
+                // help listing their subcommands.
+                if (!checkNode(sender, node)) {
                     return;
                 }
+                CommandNode child = node.child(args[offset]);
+                if (child == null) {
+                    sender.sendMessage(Messages.unknownSubcommand(sender, label));
+                    showHelp(sender, node, label);
+                    return;
+                }
+                node = child;
+                offset++;
             }
 
-            if (!checkSenderAndPermission(sender, targetSpec)) {
+            CommandSpec targetSpec = node.spec();
+            if (!checkNode(sender, node)) {
                 return;
             }
 
-            CommandContext ctx = new CommandContext(plugin, sender, label, effectiveArgs, targetSpec);
-            CommandExecutorFn exec = targetSpec.executor();
+            CommandResultFn exec = targetSpec.handler();
             if (exec == null) {
-                showHelp(sender, targetSpec, label);
+                showHelp(sender, node, label);
+                return;
+            }
+
+            int count = targetSpec.argCount();
+            long[] numbers = count == 0 ? NO_NUMBERS : new long[count];
+            Object[] values = parseArguments(sender, node, label, args, offset, numbers);
+            if (values == null) {
                 return;
             }
 
-            exec.execute(ctx);
+            CommandLimiter[] limiters = targetSpec.limiters();
+            if (limiters.length > 0 && sender instanceof Player) {
+                long wait = CommandLimiter.acquireAll(limiters, ((Player) sender).getUniqueId());
+                if (wait > 0L) {
+                    sender.sendMessage(Messages.cooldown(sender, formatWait(wait)));
+                    return;
+                }
+            }
+
+            CommandContext ctx = new CommandContext(plugin, sender, label, args, offset, targetSpec, values, numbers);
+            CommandMetrics m = metrics;
+            CommandStats stats = m != null ? m.stats(node) : null;
+            if (targetSpec.async()) {
+                CommandNode target = node;
+                CommandWorkers.commands().execute(() -> runAsync(exec, target, ctx, stats));
+                return;
+            }
+            execute(exec, node, ctx, stats);
+        }
+
+        private void execute(CommandResultFn exec, CommandNode node, CommandContext ctx, CommandStats stats) {
+            CommandResult result;
+            if (stats == null) {
+                result = exec.execute(ctx);
+            } else {
+                long start = System.nanoTime();
+                result = CommandResult.FAIL;
+                try {
+                    result = exec.execute(ctx);
+                } finally {
+                    stats.recordExecution(System.nanoTime() - start, result == CommandResult.FAIL);
+                }
+            }
+            if (result == CommandResult.SHOW_USAGE) {
+                showHelp(ctx.sender(), node, ctx.label());
+            }
+        }
+
+        private void runAsync(CommandResultFn exec, CommandNode node, CommandContext ctx, CommandStats stats) {
+            try {
+                execute(exec, node, ctx, stats);
+            } catch (Throwable t) {
+                Messages.logCommandError(plugin, rootSpec.name(), t);
+                ctx.sender().sendMessage(Messages.error(ctx.sender()));
+            }
+        }
+
+        /**
+         * Parses the spec's typed arguments. Arguments with a
+         * {@link NumericArgParser} go into {@code numbers} unboxed and are
+         * marked with {@link CommandContext#NUMERIC} in the result.
+         * Returns {@code null} after telling the sender what is wrong.
+         */
+        private Object[] parseArguments(CommandSender sender, CommandNode node, String label, String[] args, int offset,
+                                        long[] numbers) {
+            CommandSpec spec = node.spec();
+            int count = spec.argCount();
+            if (count == 0) {
+                return NO_VALUES;
+            }
+            if (args.length - offset < spec.requiredArgs()) {
+                showHelp(sender, node, label);
+                return null;
+            }
+            Object[] values = new Object[count];
+            for (int i = 0; i < count && offset + i < args.length; i++) {
+                ArgParser<?> parser = spec.argParser(i);
+                String input = parser.greedy() ? join(args, offset + i) : args[offset + i];
+                Object value;
+                if (parser instanceof NumericArgParser) {
+                    value = ((NumericArgParser) parser).parseInto(input, numbers, i) ? CommandContext.NUMERIC : null;
+                } else {
+                    value = parser.parse(input);
+                }
+                if (value == null) {
+                    sender.sendMessage(Messages.invalidArgument(sender, spec.argName(i), input));
+                    return null;
+                }
+                values[i] = value;
+            }
+            return values;
+        }
+
+        private String join(String[] args, int from) {
+            StringBuilder sb = new StringBuilder(args[from]);
+            for (int i = from + 1; i < args.length; i++) {
+                sb.append(' ').append(args[i]);
+            }
+            return sb.toString();
+        }
+
+        private String formatWait(long nanos) {
+            long seconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(nanos + 999_999_999L));
+            if (seconds < 60L) {
+                return seconds + "s";
+            }
+            long minutes = seconds / 60L;
+            seconds %= 60L;
+            return seconds == 0L ? minutes + "m" : minutes + "m " + seconds + "s";
+        }
+
+        /**
+         * {@link #checkSenderAndPermission} for a node on the dispatch path,
+         * recording a denial against that node.
+         */
+        private boolean checkNode(CommandSender sender, CommandNode node) {
+            if (checkSenderAndPermission(sender, node.spec())) {
+                return true;
+            }
+            CommandMetrics m = metrics;
+            if (m != null) {
+                m.stats(node).recordDenial();
+            }
+            return false;
         }
 
         private boolean checkSenderAndPermission(CommandSender sender, CommandSpec spec) {
             if (spec.playerOnly() && !(sender instanceof Player)) {
-                sender.sendMessage(ColorUtil.color(Messages.playerOnly()));
+                sender.sendMessage(Messages.playerOnly(sender));
                 return false;
             }
             String permission = spec.permission();
             if (permission != null && !permission.isEmpty() && !sender.hasPermission(permission)) {
-                sender.sendMessage(ColorUtil.color(Messages.noPermission()));
+                sender.sendMessage(Messages.noPermission(sender));
                 return false;
             }
             return true;
         }
 
-        private void showHelp(CommandSender sender, CommandSpec spec, String label) {
-            String usage = spec.usage();
-            if (usage != null && !usage.isEmpty()) {
-                sender.sendMessage(ColorUtil.color(usage));
+        /**
+         * Same rules as {@link #checkSenderAndPermission} without messaging
+         * the sender; used to filter help and tab completion.
+         */
+        private boolean canUse(CommandSender sender, CommandSpec spec) {
+            if (spec.playerOnly() && !(sender instanceof Player)) {
+                return false;
+            }
+            String permission = spec.permission();
+            return permission == null || permission.isEmpty() || sender.hasPermission(permission);
+        }
+
+        /**
+         * Sends usage or the list of visible subcommands. Rendered lines are
+         * cached on the node per label and visibility mask, so repeated help
+         * only costs the permission checks and a cache lookup.
+         */
+        private void showHelp(CommandSender sender, CommandNode node, String label) {
+            CommandSpec spec = node.spec();
+            String usage = node.coloredUsage();
+            if (usage != null) {
+                sender.sendMessage(usage);
                 return;
             }
-            if (spec.hasSubcommands()) {
-                sender.sendMessage(ColorUtil.color(ChatColor.YELLOW + "Available subcommands:"));
-                for (Map.Entry<String, CommandSpec> entry : spec.subcommands().entrySet()) {
-                    CommandSpec sub = entry.getValue();
-                    if (!checkSenderAndPermission(sender, sub)) {
-                        continue;
-                    }
-                    StringBuilder line = new StringBuilder();
-                    line.append(ChatColor.YELLOW).append("/").append(label).append(" ").append(sub.name());
-                    if (sub.description() != null && !sub.description().isEmpty()) {
-                        line.append(" ")
-                            .append(ChatColor.GRAY).append("- ")
-                            .append(ChatColor.WHITE).append(sub.description());
+            long visible = 0L;
+            CommandSpec[] subs = node.subcommands();
+            boolean cacheable = subs.length <= Long.SIZE;
+            if (cacheable) {
+                for (int i = 0; i < subs.length; i++) {
+                    if (canUse(sender, subs[i])) {
+                        visible |= 1L << i;
                     }
-                    sender.sendMessage(ColorUtil.color(line.toString()));
                 }
-            } else {
-                sender.sendMessage(ColorUtil.color(ChatColor.YELLOW + "Usage: /" + label));
+            }
+            String[] lines = cacheable ? node.cachedHelp(label, visible) : null;
+            if (lines == null) {
+                lines = renderHelp(sender, node, label, cacheable, visible);
+                if (cacheable) {
+                    node.cacheHelp(label, visible, lines);
+                }
+            }
+            for (String line : lines) {
+                sender.sendMessage(line);
             }
         }
 
+        private String[] renderHelp(CommandSender sender, CommandNode node, String label, boolean useMask, long visible) {
+            CommandSpec spec = node.spec();
+            String prefix = node.route().isEmpty() ? label : label + " " + node.route();
+            if (!spec.hasSubcommands()) {
+                return new String[]{ColorUtil.color(ChatColor.YELLOW + "Usage: /" + prefix + spec.argSyntax())};
+            }
+            List<String> lines = new ArrayList<String>();
+            lines.add(ColorUtil.color(ChatColor.YELLOW + "Available subcommands:"));
+            CommandSpec[] subs = node.subcommands();
+            for (int i = 0; i < subs.length; i++) {
+                CommandSpec sub = subs[i];
+                if (useMask ? (visible & (1L << i)) == 0L : !canUse(sender, sub)) {
+                    continue;
+                }
+                StringBuilder line = new StringBuilder();
+                line.append(ChatColor.YELLOW).append("/").append(prefix).append(" ").append(sub.name());
+                if (sub.description() != null && !sub.description().isEmpty()) {
+                    line.append(" ")
+                        .append(ChatColor.GRAY).append("- ")
+                        .append(ChatColor.WHITE).append(sub.description());
+                }
+                lines.add(ColorUtil.color(line.toString()));
+            }
+            return lines.toArray(new String[0]);
+        }
+
         public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
             try {
-                return tab(sender, alias, args);
+                return tab(sender, alias, args, metrics != null ? System.nanoTime() : 0L);
             } catch (Throwable t) {
                 Messages.logCommandError(plugin, rootSpec.name(), t);
                 return Collections.emptyList();
             }
         }
 
-        private List<String> tab(CommandSender sender, String label, String[] args) {
+        /**
+         * @param start {@link System#nanoTime()} when completion began, if
+         *              metrics are on; the time is recorded against the node
+         *              the arguments resolved to
+         */
+        private List<String> tab(CommandSender sender, String label, String[] args, long start) {
             if (args.length == 0) {
-                return Collections.emptyList();
+                return completed(root, start, Collections.<String>emptyList());
             }
 
-            if (rootSpec.hasSubcommands()) {
-                if (args.length == 1) {
-                    String prefix = args[0].toLowerCase(Locale.ROOT);
-                    List<String> suggestions = new ArrayList<String>();
-                    for (Map.Entry<String, CommandSpec> entry : rootSpec.subcommands().entrySet()) {
-                        CommandSpec sub = entry.getValue();
-                        if (!checkSenderAndPermission(sender, sub)) {
-                            continue;
-                        }
-                        String name = sub.name();
-                        if (name.toLowerCase(Locale.ROOT).startsWith(prefix)) {
-                            suggestions.add(name);
-                        }
-                    }
-                    return suggestions;
+            CommandNode node = root;
+            int offset = 0;
+            while (node.hasChildren() && offset < args.length) {
+                if (offset == args.length - 1) {
+                    return completed(node, start, suggestSubcommands(sender, node, args[offset]));
                 }
-
-                String subName = args[0].toLowerCase(Locale.ROOT);
-                CommandSpec sub = rootSpec.subcommands().get(subName);
-                if (sub != null) {
-                    if (!checkSenderAndPermission(sender, sub)) {
-                        return Collections.emptyList();
-                    }
-                    String[] subArgs;
-                    if (args.length > 1) {
-                        subArgs = Arrays.copyOfRange(args, 1, args.length);
-                    } else {
-                        subArgs = new String[0];
-                    }
-                    CommandContext ctx = new CommandContext(plugin, sender, label, subArgs, sub);
-                    TabCompleterFn tabCompleter = sub.tabCompleter();
-                    if (tabCompleter != null) {
-                        List<String> result = tabCompleter.complete(ctx);
-                        return result != null ? result : Collections.<String>emptyList();
-                    }
+                CommandNode child = node.child(args[offset]);
+                if (child == null) {
+                    break;
+                }
+                if (!canUse(sender, child.spec())) {
+                    return completed(node, start, Collections.<String>emptyList());
                 }
+                node = child;
+                offset++;
             }
 
-            TabCompleterFn rootTab = rootSpec.tabCompleter();
-            if (rootTab == null) {
+            AsyncTabCompleterFn asyncTab = node.spec().asyncTabCompleter();
+            if (asyncTab != null) {
+                CommandContext ctx = new CommandContext(plugin, sender, label, args, offset, node.spec());
+                return completed(node, start, asyncCompletions.cachedOrStart(asyncTab, ctx, inputKey(label, args)));
+            }
+
+            TabCompleterFn tabCompleter = node.spec().tabCompleter();
+            if (tabCompleter == null) {
+                return completed(node, start, suggestArgument(sender, node.spec(), args, offset));
+            }
+            CommandContext ctx = new CommandContext(plugin, sender, label, args, offset, node.spec());
+            List<String> result = tabCompleter.complete(ctx);
+            return completed(node, start, result != null ? result : Collections.<String>emptyList());
+        }
+
+        private List<String> completed(CommandNode node, long start, List<String> result) {
+            CommandMetrics m = metrics;
+            if (m != null && start != 0L) {
+                m.stats(node).recordTabCompletion(System.nanoTime() - start);
+            }
+            return result;
+        }
+
+        private List<String> suggestArgument(CommandSender sender, CommandSpec spec, String[] args, int offset) {
+            int count = spec.argCount();
+            if (count == 0) {
+                return Collections.emptyList();
+            }
+            int index = args.length - 1 - offset;
+            ArgParser<?> parser;
+            if (index < count) {
+                parser = spec.argParser(index);
+            } else if (spec.argParser(count - 1).greedy()) {
+                parser = spec.argParser(count - 1);
+            } else {
                 return Collections.emptyList();
             }
-            CommandContext ctx = new CommandContext(plugin, sender, label, args, rootSpec);
-            List<String> result = rootTab.complete(ctx);
-            return result != null ? result : Collections.<String>emptyList();
+            return Args.complete(parser, sender, args[args.length - 1]);
+        }
+
+        /**
+         * Completion from Paper's async tab event thread. Only handles
+         * positions backed by an {@link AsyncTabCompleterFn}; everything else
+         * returns {@code null} and is completed on the main thread as usual.
+         */
+        private List<String> tabAsync(CommandSender sender, String label, String[] args) throws Exception {
+            CommandNode node = root;
+            int offset = 0;
+            while (node.hasChildren() && offset < args.length) {
+                if (offset == args.length - 1) {
+                    return null;
+                }
+                CommandNode child = node.child(args[offset]);
+                if (child == null) {
+                    break;
+                }
+                if (!canUse(sender, child.spec())) {
+                    return Collections.emptyList();
+                }
+                node = child;
+                offset++;
+            }
+            AsyncTabCompleterFn asyncTab = node.spec().asyncTabCompleter();
+            if (asyncTab == null) {
+                return null;
+            }
+            if (!canUse(sender, node.spec())) {
+                return Collections.emptyList();
+            }
+            CommandContext ctx = new CommandContext(plugin, sender, label, args, offset, node.spec());
+            try {
+                return asyncCompletions.start(asyncTab, ctx, inputKey(label, args))
+                        .get(ASYNC_TAB_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (CancellationException | TimeoutException e) {
+                return Collections.emptyList();
+            }
+        }
+
+        private String inputKey(String label, String[] args) {
+            StringBuilder sb = new StringBuilder(label);
+            for (String arg : args) {
+                sb.append(' ').append(arg);
+            }
+            return sb.toString();
+        }
+
+        /**
+         * Prefix lookup in the spec's sorted completion index. Aliases are
+         * only suggested when the subcommand's own name does not match, and
+         * each subcommand's permission is checked at most once per request.
+         */
+        private List<String> suggestSubcommands(CommandSender sender, CommandNode node, String typed) {
+            CommandSpec spec = node.spec();
+            String prefix = typed.toLowerCase(Locale.ROOT);
+            List<String> suggestions = null;
+            Map<CommandSpec, Boolean> allowed = null;
+            for (int i = spec.completionStart(prefix); i < spec.completionCount(); i++) {
+                if (!spec.completionKey(i).startsWith(prefix)) {
+                    break;
+                }
+                CommandSpec sub = spec.completionTarget(i);
+                String label = spec.completionLabel(i);
+                if (!label.equals(sub.name()) && sub.nameKey().startsWith(prefix)) {
+                    continue;
+                }
+                if (allowed == null) {
+                    allowed = new IdentityHashMap<CommandSpec, Boolean>();
+                }
+                Boolean ok = allowed.get(sub);
+                if (ok == null) {
+                    ok = canUse(sender, sub);
+                    allowed.put(sub, ok);
+                }
+                if (!ok) {
+                    continue;
+                }
+                if (suggestions == null) {
+                    suggestions = new ArrayList<String>();
+                }
+                suggestions.add(label);
+            }
+            return suggestions != null ? suggestions : Collections.<String>emptyList();
         }
     }
 }
@@ -0,0 +1,84 @@
+package dev.adam.spigotkit.commands;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandMap;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Access to the server's {@link CommandMap}, which the Bukkit API does not
+ * expose. CraftBukkit and Paper both provide a public
+ * {@code getCommandMap()} on the server implementation.
+ */
+final class CommandMaps {
+
+    private CommandMaps() {
+    }
+
+    static CommandMap commandMap(Plugin plugin) {
+        try {
+            Method method = plugin.getServer().getClass().getMethod("getCommandMap");
+            Object map = method.invoke(plugin.getServer());
+            return map instanceof CommandMap ? (CommandMap) map : null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Registers {@code command} under its name, its aliases and
+     * {@code plugin:name}.
+     */
+    static boolean register(Plugin plugin, Command command) {
+        CommandMap map = commandMap(plugin);
+        if (map == null) {
+            return false;
+        }
+        map.register(plugin.getName().toLowerCase(Locale.ROOT), command);
+        return true;
+    }
+
+    /**
+     * Removes {@code command} and all its labels from the command map.
+     */
+    static void unregister(Plugin plugin, Command command) {
+        CommandMap map = commandMap(plugin);
+        if (map == null) {
+            return;
+        }
+        try {
+            Method method = map.getClass().getMethod("getKnownCommands");
+            @SuppressWarnings("unchecked")
+            Map<String, Command> known = (Map<String, Command>) method.invoke(map);
+            known.values().removeIf(c -> c == command);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            plugin.getLogger().warning("Failed to unregister command '" + command.getName() + "': " + e.getMessage());
+        }
+        command.unregister(map);
+    }
+
+    /**
+     * Rebuilds the server's Brigadier tree and resends it to online
+     * players, so clients pick up commands added or removed after startup.
+     * Does nothing while nobody is online (e.g. during startup, where the
+     * server syncs once all plugins are enabled).
+     */
+    static void syncToPlayers(Plugin plugin) {
+        if (plugin.getServer().getOnlinePlayers().isEmpty()) {
+            return;
+        }
+        try {
+            plugin.getServer().getClass().getMethod("syncCommands").invoke(plugin.getServer());
+            return;
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // Not CraftBukkit; fall back to refreshing each client.
+        }
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            player.updateCommands();
+        }
+    }
+}
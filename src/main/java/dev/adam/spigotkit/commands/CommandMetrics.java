@@ -0,0 +1,78 @@
+package dev.adam.spigotkit.commands;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Execution metrics for the commands of one {@link CommandManager}.
+ *
+ * <p>Metrics are off by default; {@link CommandManager#enableMetrics()}
+ * turns them on. While off, dispatch pays a single null check.</p>
+ */
+public final class CommandMetrics {
+
+    private static final List<CommandMetrics> ALL = new CopyOnWriteArrayList<CommandMetrics>();
+
+    private final Plugin plugin;
+    private final ConcurrentHashMap<String, CommandStats> stats = new ConcurrentHashMap<String, CommandStats>();
+
+    CommandMetrics(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Metrics of every manager that has them enabled, across plugins.
+     */
+    public static List<CommandMetrics> all() {
+        return Collections.unmodifiableList(ALL);
+    }
+
+    static void register(CommandMetrics metrics) {
+        ALL.add(metrics);
+    }
+
+    static void unregister(CommandMetrics metrics) {
+        ALL.remove(metrics);
+    }
+
+    public Plugin plugin() {
+        return plugin;
+    }
+
+    /**
+     * Stats for a command path such as {@code "home"} or {@code "home set"},
+     * or {@code null} if it has not been used yet.
+     */
+    public CommandStats get(String path) {
+        return stats.get(path);
+    }
+
+    /**
+     * Every recorded path, sorted by total execution time, slowest first.
+     */
+    public List<CommandStats> snapshot() {
+        List<CommandStats> list = new ArrayList<CommandStats>(stats.values());
+        Collections.sort(list, (a, b) -> Long.compare(b.execution().totalNanos(), a.execution().totalNanos()));
+        return list;
+    }
+
+    public void reset() {
+        for (CommandStats s : stats.values()) {
+            s.reset();
+        }
+    }
+
+    CommandStats stats(CommandNode node) {
+        String path = node.path();
+        CommandStats s = stats.get(path);
+        if (s == null) {
+            s = stats.computeIfAbsent(path, CommandStats::new);
+        }
+        return s;
+    }
+}
@@ -0,0 +1,155 @@
+package dev.adam.spigotkit.commands;
+
+import dev.adam.spigotkit.core.ColorUtil;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled routing tree for a {@link CommandSpec}.
+ *
+ * <p>Built once at registration time. Each node maps the lowercased names
+ * and aliases of its subcommands to child nodes, so dispatch resolves any
+ * depth of {@code /cmd a b c ...} with one hash lookup per level.</p>
+ */
+final class CommandNode {
+
+    /**
+     * Rendered help variants kept per label; older ones are dropped first.
+     */
+    private static final int MAX_HELP_VARIANTS = 8;
+
+    private final CommandSpec spec;
+    private final String route;
+    private final String path;
+    private final Map<String, CommandNode> children;
+    private final CommandSpec[] subcommands;
+    private final String coloredUsage;
+    private final ConcurrentHashMap<String, HelpVariant[]> help = new ConcurrentHashMap<String, HelpVariant[]>();
+
+    private CommandNode(CommandSpec spec, String route, String path) {
+        this.spec = spec;
+        this.route = route;
+        this.path = path;
+        this.subcommands = spec.subcommands().values().toArray(new CommandSpec[0]);
+        String usage = spec.usage();
+        this.coloredUsage = usage == null || usage.isEmpty() ? null : ColorUtil.color(usage);
+        if (!spec.hasSubcommands()) {
+            this.children = Collections.emptyMap();
+            return;
+        }
+        Map<String, CommandNode> map = new HashMap<String, CommandNode>();
+        for (CommandSpec sub : spec.subcommands().values()) {
+            String childRoute = route.isEmpty() ? sub.name() : route + " " + sub.name();
+            map.put(sub.nameKey(), new CommandNode(sub, childRoute, path + " " + sub.name()));
+        }
+        // Aliases never shadow a real subcommand name.
+        for (CommandSpec sub : spec.subcommands().values()) {
+            CommandNode node = map.get(sub.nameKey());
+            for (String alias : sub.aliases()) {
+                String key = alias.toLowerCase(Locale.ROOT);
+                if (!map.containsKey(key)) {
+                    map.put(key, node);
+                }
+            }
+        }
+        this.children = map;
+    }
+
+    static CommandNode compile(CommandSpec root) {
+        return new CommandNode(root, "", root.name());
+    }
+
+    CommandSpec spec() {
+        return spec;
+    }
+
+    /**
+     * Subcommand names from the root to this node, separated by spaces;
+     * empty for the root itself.
+     */
+    String route() {
+        return route;
+    }
+
+    /**
+     * Root command name followed by {@link #route()}, e.g. {@code "home set"}.
+     */
+    String path() {
+        return path;
+    }
+
+    /**
+     * Direct subcommands in help order.
+     */
+    CommandSpec[] subcommands() {
+        return subcommands;
+    }
+
+    /**
+     * The spec's usage line with colors applied, or {@code null}.
+     */
+    String coloredUsage() {
+        return coloredUsage;
+    }
+
+    /**
+     * Returns help lines rendered earlier for {@code label} with the
+     * subcommands in {@code visible} (bit {@code i} = {@code subcommands()[i]}).
+     */
+    String[] cachedHelp(String label, long visible) {
+        HelpVariant[] variants = help.get(label);
+        if (variants != null) {
+            for (HelpVariant variant : variants) {
+                if (variant.visible == visible) {
+                    return variant.lines;
+                }
+            }
+        }
+        return null;
+    }
+
+    void cacheHelp(String label, long visible, String[] lines) {
+        help.compute(label, (key, variants) -> {
+            HelpVariant added = new HelpVariant(visible, lines);
+            if (variants == null) {
+                return new HelpVariant[]{added};
+            }
+            int keep = Math.min(variants.length, MAX_HELP_VARIANTS - 1);
+            HelpVariant[] next = Arrays.copyOf(variants, keep + 1);
+            System.arraycopy(variants, 0, next, 1, keep);
+            next[0] = added;
+            return next;
+        });
+    }
+
+    boolean hasChildren() {
+        return !children.isEmpty();
+    }
+
+    /**
+     * Resolves a subcommand by name or alias, case-insensitively.
+     */
+    CommandNode child(String arg) {
+        CommandNode node = children.get(arg);
+        if (node == null) {
+            node = children.get(arg.toLowerCase(Locale.ROOT));
+        }
+        return node;
+    }
+
+    private static final class HelpVariant {
+
+        private final long visible;
+        private final String[] lines;
+
+        private HelpVariant(long visible, String[] lines) {
+            this.visible = visible;
+            this.lines = lines;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package dev.adam.spigotkit.commands;
+
+/**
+ * Command executor that reports how the command went.
+ *
+ * <p>{@link CommandResult#SHOW_USAGE} makes the framework send the
+ * command's usage or help; {@link CommandResult#FAIL} is counted as a
+ * failure in {@link CommandMetrics}. Exceptions are caught and logged by
+ * the framework, as for {@link CommandExecutorFn}.</p>
+ */
+public interface CommandResultFn {
+
+    /**
+     * Execute the command.
+     *
+     * @param ctx context for this execution
+     * @return the outcome, {@code null} is treated as {@link CommandResult#SUCCESS}
+     */
+    CommandResult execute(CommandContext ctx);
+}
@@ -1,8 +1,14 @@
 package dev.adam.spigotkit.commands;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -14,6 +20,7 @@ import java.util.function.Consumer;
 public final class CommandSpec {
 
     private final String name;
+    private final String nameKey;
     private final Set<String> aliases;
     private final String permission;
     private final boolean playerOnly;
@@ -21,10 +28,24 @@ public final class CommandSpec {
     private final String usage;
     private final Map<String, CommandSpec> subcommands;
     private final CommandExecutorFn executor;
+    private final CommandResultFn handler;
+    private final boolean async;
     private final TabCompleterFn tabCompleter;
+    private final AsyncTabCompleterFn asyncTabCompleter;
+    private final CommandLimiter[] limiters;
+    private final String[] argNames;
+    private final ArgParser<?>[] argParsers;
+    private final int requiredArgs;
+    private final String argSyntax;
+
+    // Completion index over subcommand names and aliases, sorted by key.
+    private final String[] completionKeys;
+    private final String[] completionLabels;
+    private final CommandSpec[] completionTargets;
 
     private CommandSpec(Builder builder) {
         this.name = builder.name;
+        this.nameKey = builder.name.toLowerCase(Locale.ROOT);
         this.aliases = Collections.unmodifiableSet(new LinkedHashSet<String>(builder.aliases));
         this.permission = builder.permission;
         this.playerOnly = builder.playerOnly;
@@ -32,7 +53,58 @@ public final class CommandSpec {
         this.usage = builder.usage;
         this.subcommands = Collections.unmodifiableMap(new LinkedHashMap<String, CommandSpec>(builder.subcommands));
         this.executor = builder.executor;
+        this.handler = builder.handler;
+        this.async = builder.async;
         this.tabCompleter = builder.tabCompleter;
+        this.asyncTabCompleter = builder.asyncTabCompleter;
+
+        List<CommandLimiter> limiterList = new ArrayList<CommandLimiter>(2);
+        if (builder.cooldown != null) {
+            limiterList.add(new CommandLimiter(1, builder.cooldown.toNanos()));
+        }
+        if (builder.ratePer != null) {
+            limiterList.add(new CommandLimiter(builder.ratePermits, builder.ratePer.toNanos()));
+        }
+        this.limiters = limiterList.toArray(new CommandLimiter[0]);
+
+        this.argNames = builder.argNames.toArray(new String[0]);
+        this.argParsers = builder.argParsers.toArray(new ArgParser<?>[0]);
+        this.requiredArgs = builder.requiredArgs;
+        StringBuilder syntax = new StringBuilder();
+        for (int i = 0; i < argNames.length; i++) {
+            boolean required = i < requiredArgs;
+            syntax.append(' ').append(required ? '<' : '[').append(argNames[i])
+                    .append(argParsers[i].greedy() ? "..." : "").append(required ? '>' : ']');
+        }
+        this.argSyntax = syntax.toString();
+
+        List<String[]> entries = new ArrayList<String[]>();
+        Map<String, CommandSpec> byKey = new HashMap<String, CommandSpec>();
+        for (CommandSpec sub : subcommands.values()) {
+            addCompletion(entries, byKey, sub.name(), sub);
+        }
+        for (CommandSpec sub : subcommands.values()) {
+            for (String alias : sub.aliases()) {
+                addCompletion(entries, byKey, alias, sub);
+            }
+        }
+        Collections.sort(entries, (a, b) -> a[0].compareTo(b[0]));
+        this.completionKeys = new String[entries.size()];
+        this.completionLabels = new String[entries.size()];
+        this.completionTargets = new CommandSpec[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            completionKeys[i] = entries.get(i)[0];
+            completionLabels[i] = entries.get(i)[1];
+            completionTargets[i] = byKey.get(completionKeys[i]);
+        }
+    }
+
+    private static void addCompletion(List<String[]> entries, Map<String, CommandSpec> byKey, String label, CommandSpec target) {
+        String key = label.toLowerCase(Locale.ROOT);
+        if (!byKey.containsKey(key)) {
+            byKey.put(key, target);
+            entries.add(new String[]{key, label});
+        }
     }
 
     public static Builder create(String name) {
@@ -43,6 +115,13 @@ public final class CommandSpec {
         return name;
     }
 
+    /**
+     * Lowercased name, as used for routing and completion.
+     */
+    String nameKey() {
+        return nameKey;
+    }
+
     public Set<String> aliases() {
         return aliases;
     }
@@ -75,10 +154,107 @@ public final class CommandSpec {
         return executor;
     }
 
+    /**
+     * The executor as a {@link CommandResultFn}; plain
+     * {@link CommandExecutorFn}s always report {@link CommandResult#SUCCESS}.
+     */
+    CommandResultFn handler() {
+        return handler;
+    }
+
+    /**
+     * Whether the executor runs off the main thread (see
+     * {@link Builder#execAsync}).
+     */
+    public boolean async() {
+        return async;
+    }
+
     public TabCompleterFn tabCompleter() {
         return tabCompleter;
     }
 
+    public AsyncTabCompleterFn asyncTabCompleter() {
+        return asyncTabCompleter;
+    }
+
+    int argCount() {
+        return argNames.length;
+    }
+
+    String argName(int i) {
+        return argNames[i];
+    }
+
+    ArgParser<?> argParser(int i) {
+        return argParsers[i];
+    }
+
+    /**
+     * Index of the declared argument called {@code name}, or -1.
+     */
+    int argIndex(String name) {
+        for (int i = 0; i < argNames.length; i++) {
+            if (argNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Number of leading arguments that must be present.
+     */
+    int requiredArgs() {
+        return requiredArgs;
+    }
+
+    /**
+     * Declared arguments for usage lines, e.g. {@code " <target> [amount]"}.
+     */
+    String argSyntax() {
+        return argSyntax;
+    }
+
+    /**
+     * Cooldown and rate limiters for this command; empty if unlimited.
+     */
+    CommandLimiter[] limiters() {
+        return limiters;
+    }
+
+    /**
+     * Returns the index of the first subcommand name or alias whose
+     * lowercased form is {@code >= prefix}; matches for {@code prefix}
+     * are contiguous from there. {@code prefix} must be lowercase.
+     */
+    int completionStart(String prefix) {
+        int i = Arrays.binarySearch(completionKeys, prefix);
+        return i >= 0 ? i : -(i + 1);
+    }
+
+    int completionCount() {
+        return completionKeys.length;
+    }
+
+    /**
+     * Lowercased name or alias at index {@code i} of the completion index.
+     */
+    String completionKey(int i) {
+        return completionKeys[i];
+    }
+
+    /**
+     * Name or alias as declared, for suggestions.
+     */
+    String completionLabel(int i) {
+        return completionLabels[i];
+    }
+
+    CommandSpec completionTarget(int i) {
+        return completionTargets[i];
+    }
+
     /**
      * Builder for {@link CommandSpec}.
      */
@@ -92,7 +268,16 @@ public final class CommandSpec {
         private String usage;
         private final Map<String, CommandSpec> subcommands = new ConcurrentHashMap<String, CommandSpec>();
         private CommandExecutorFn executor;
+        private CommandResultFn handler;
+        private boolean async;
         private TabCompleterFn tabCompleter;
+        private AsyncTabCompleterFn asyncTabCompleter;
+        private Duration cooldown;
+        private int ratePermits;
+        private Duration ratePer;
+        private final List<String> argNames = new ArrayList<String>();
+        private final List<ArgParser<?>> argParsers = new ArrayList<ArgParser<?>>();
+        private int requiredArgs;
 
         private Builder(String name) {
             if (name == null || name.isEmpty()) {
@@ -137,8 +322,111 @@ public final class CommandSpec {
             return this;
         }
 
+        /**
+         * Declare a required, typed argument. Arguments are parsed in
+         * declaration order before the executor runs; read them with
+         * {@link CommandContext#get(String)}. Bad input is reported to the
+         * sender and the executor is not called. Suggestions come from the
+         * parser unless a {@link #tab} completer is set.
+         */
+        public Builder arg(String name, ArgParser<?> parser) {
+            if (requiredArgs != argNames.size()) {
+                throw new IllegalStateException("Required argument '" + name + "' cannot follow an optional one");
+            }
+            addArg(name, parser);
+            requiredArgs++;
+            return this;
+        }
+
+        /**
+         * Declare an optional, typed argument. Must come after all
+         * required ones.
+         */
+        public Builder optionalArg(String name, ArgParser<?> parser) {
+            addArg(name, parser);
+            return this;
+        }
+
+        private void addArg(String name, ArgParser<?> parser) {
+            if (name == null || name.isEmpty() || parser == null) {
+                throw new IllegalArgumentException("Argument needs a name and a parser");
+            }
+            if (argNames.contains(name)) {
+                throw new IllegalArgumentException("Duplicate argument '" + name + "'");
+            }
+            if (!argParsers.isEmpty() && argParsers.get(argParsers.size() - 1).greedy()) {
+                throw new IllegalStateException("Argument '" + name + "' cannot follow a greedy argument");
+            }
+            argNames.add(name);
+            argParsers.add(parser);
+        }
+
+        /**
+         * Players must wait {@code cooldown} between two uses of this
+         * command. The console and other non-player senders are exempt.
+         */
+        public Builder cooldown(Duration cooldown) {
+            this.cooldown = positive(cooldown);
+            return this;
+        }
+
+        /**
+         * Players may use this command at most {@code permits} times per
+         * {@code per}, with bursts up to {@code permits}. The console and
+         * other non-player senders are exempt.
+         */
+        public Builder rateLimit(int permits, Duration per) {
+            if (permits < 1) {
+                throw new IllegalArgumentException("Rate limit permits must be at least 1");
+            }
+            this.ratePermits = permits;
+            this.ratePer = positive(per);
+            return this;
+        }
+
+        private static Duration positive(Duration duration) {
+            if (duration == null || duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Duration must be positive");
+            }
+            return duration;
+        }
+
         public Builder exec(CommandExecutorFn executor) {
+            setExecutor(executor);
+            this.async = false;
+            return this;
+        }
+
+        /**
+         * Like {@link #exec}, for executors that return a
+         * {@link CommandResult}, e.g. {@code SHOW_USAGE} on bad input.
+         */
+        public Builder execResult(CommandResultFn executor) {
+            this.handler = executor;
+            this.executor = executor == null ? null : ctx -> executor.execute(ctx);
+            this.async = false;
+            return this;
+        }
+
+        private void setExecutor(CommandExecutorFn executor) {
             this.executor = executor;
+            this.handler = executor == null ? null : ctx -> {
+                executor.execute(ctx);
+                return CommandResult.SUCCESS;
+            };
+        }
+
+        /**
+         * Run the executor on a worker thread instead of the main thread.
+         *
+         * <p>Permission and sender checks still happen on the main thread
+         * first. Inside the executor, use {@link CommandContext#sync} or
+         * {@link CommandContext#supplySync} for anything that touches the
+         * Bukkit world.</p>
+         */
+        public Builder execAsync(CommandExecutorFn executor) {
+            setExecutor(executor);
+            this.async = true;
             return this;
         }
 
@@ -147,6 +435,19 @@ public final class CommandSpec {
             return this;
         }
 
+        /**
+         * Use an asynchronous tab completer instead of {@link #tab}.
+         *
+         * <p>On Paper the suggestions are delivered through
+         * {@code AsyncTabCompleteEvent} without touching the main thread. On
+         * plain Spigot the main thread gets the last finished result for the
+         * same input while a fresh one is computed in the background.</p>
+         */
+        public Builder tabAsync(AsyncTabCompleterFn asyncTabCompleter) {
+            this.asyncTabCompleter = asyncTabCompleter;
+            return this;
+        }
+
         /**
             * Define a subcommand by name.
             *
@@ -0,0 +1,81 @@
+package dev.adam.spigotkit.commands;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for one command or subcommand path.
+ */
+public final class CommandStats {
+
+    private final String path;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder denials = new LongAdder();
+    private final LatencyHistogram execution = new LatencyHistogram();
+    private final LatencyHistogram tabCompletion = new LatencyHistogram();
+
+    CommandStats(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Command name followed by any subcommand names, e.g. {@code "home set"}.
+     */
+    public String path() {
+        return path;
+    }
+
+    /**
+     * Executor runs, successful or not.
+     */
+    public long invocations() {
+        return invocations.sum();
+    }
+
+    /**
+     * Executor runs that returned {@link CommandResult#FAIL} or threw,
+     * on the main thread or in an async command.
+     */
+    public long failures() {
+        return failures.sum();
+    }
+
+    /**
+     * Attempts rejected by the permission or player-only checks.
+     */
+    public long denials() {
+        return denials.sum();
+    }
+
+    public LatencyHistogram execution() {
+        return execution;
+    }
+
+    public LatencyHistogram tabCompletion() {
+        return tabCompletion;
+    }
+
+    void recordExecution(long nanos, boolean failed) {
+        invocations.increment();
+        if (failed) {
+            failures.increment();
+        }
+        execution.record(nanos);
+    }
+
+    void recordDenial() {
+        denials.increment();
+    }
+
+    void recordTabCompletion(long nanos) {
+        tabCompletion.record(nanos);
+    }
+
+    void reset() {
+        invocations.reset();
+        failures.reset();
+        denials.reset();
+        execution.reset();
+        tabCompletion.reset();
+    }
+}
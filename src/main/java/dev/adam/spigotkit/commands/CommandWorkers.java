@@ -0,0 +1,100 @@
+package dev.adam.spigotkit.commands;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared, bounded worker pools for off-main-thread command work.
+ */
+final class CommandWorkers {
+
+    private static final int QUEUE_CAPACITY = 256;
+
+    /**
+     * Upper bound for async command executors running or waiting at once.
+     */
+    private static final int MAX_ASYNC_COMMANDS = 256;
+
+    private static final ExecutorService EXECUTOR = createPool();
+    private static final Executor COMMANDS = createCommandExecutor();
+
+    private CommandWorkers() {
+    }
+
+    /**
+     * Platform thread pool for short CPU-bound work such as completions.
+     */
+    static ExecutorService executor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Executor for {@code execAsync} commands. Uses a virtual thread per
+     * command on Java 21+, otherwise the shared platform pool. Either way
+     * at most {@value #MAX_ASYNC_COMMANDS} commands are admitted at once;
+     * beyond that {@link RejectedExecutionException} is thrown.
+     */
+    static Executor commands() {
+        return COMMANDS;
+    }
+
+    private static ExecutorService createPool() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY), r -> {
+                    Thread thread = new Thread(r, "SpigotKit Command Worker #" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static Executor createCommandExecutor() {
+        Executor delegate = virtualThreadExecutor();
+        if (delegate == null) {
+            delegate = EXECUTOR;
+        }
+        Executor target = delegate;
+        Semaphore permits = new Semaphore(MAX_ASYNC_COMMANDS);
+        return task -> {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("Too many async commands in flight");
+            }
+            try {
+                target.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}, looked up
+     * reflectively so the library still runs on Java 8.
+     */
+    private static Executor virtualThreadExecutor() {
+        try {
+            Object executor = java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            return (Executor) executor;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
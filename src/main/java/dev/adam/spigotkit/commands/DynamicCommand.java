@@ -0,0 +1,64 @@
+package dev.adam.spigotkit.commands;
+
+import dev.adam.spigotkit.core.Messages;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginIdentifiableCommand;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command registered straight into the server's command map, for specs
+ * that have no {@code plugin.yml} entry.
+ */
+final class DynamicCommand extends Command implements PluginIdentifiableCommand {
+
+    private final Plugin plugin;
+    private final CommandExecutor executor;
+    private final TabCompleter completer;
+
+    DynamicCommand(Plugin plugin, CommandSpec spec, CommandExecutor executor, TabCompleter completer) {
+        super(spec.name(),
+                spec.description() != null ? spec.description() : "",
+                spec.usage() != null ? spec.usage() : "/" + spec.name(),
+                new ArrayList<String>(spec.aliases()));
+        this.plugin = plugin;
+        this.executor = executor;
+        this.completer = completer;
+        if (spec.permission() != null && !spec.permission().isEmpty()) {
+            setPermission(spec.permission());
+            setPermissionMessage(Messages.noPermission());
+        }
+    }
+
+    @Override
+    public boolean execute(CommandSender sender, String label, String[] args) {
+        if (!plugin.isEnabled()) {
+            return false;
+        }
+        // PluginCommand does the same for plugin.yml commands.
+        if (!testPermission(sender)) {
+            return true;
+        }
+        return executor.onCommand(sender, this, label, args);
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String alias, String[] args) {
+        List<String> result = completer.onTabComplete(sender, this, alias, args);
+        return result != null ? result : new ArrayList<String>();
+    }
+
+    CommandExecutor executor() {
+        return executor;
+    }
+
+    @Override
+    public Plugin getPlugin() {
+        return plugin;
+    }
+}
@@ -0,0 +1,130 @@
+package dev.adam.spigotkit.commands;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear latency histogram in the spirit of HdrHistogram.
+ *
+ * <p>Each power of two is split into {@value #SUB_BUCKETS} linear buckets,
+ * so any recorded value is reported within 12.5% of its true value.
+ * Recording is a few shifts and a {@link LongAdder} increment per bucket,
+ * which stripes itself under contention, so async executors and async
+ * tab completion do not fight over one counter. It never locks. Values
+ * are nanoseconds, capped at about 18 minutes.</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        long value = nanos < 0L ? 0L : Math.min(nanos, MAX_VALUE);
+        buckets[indexOf(value)].increment();
+        count.increment();
+        total.add(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Largest value that falls into bucket {@code index}.
+     */
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        long lower = (1L << exponent) + (sub << (exponent - SUB_BITS));
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Sum of all recorded values, in nanoseconds.
+     */
+    public long totalNanos() {
+        return total.sum();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    public long meanNanos() {
+        long n = count.sum();
+        return n == 0L ? 0L : total.sum() / n;
+    }
+
+    /**
+     * Value at the given percentile ({@code 0..100}), in nanoseconds.
+     * Exact to the bucket: the result is the upper bound of the bucket
+     * holding that rank, never more than the recorded maximum.
+     */
+    public long percentileNanos(double percentile) {
+        long n = 0L;
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            n += counts[i];
+        }
+        if (n == 0L) {
+            return 0L;
+        }
+        long rank = (long) Math.ceil(Math.max(0.0D, Math.min(100.0D, percentile)) / 100.0D * n);
+        if (rank < 1L) {
+            rank = 1L;
+        }
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public double percentile(double percentile, TimeUnit unit) {
+        return percentileNanos(percentile) / (double) unit.toNanos(1L);
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i].reset();
+        }
+        count.reset();
+        total.reset();
+        max.set(0L);
+    }
+}
@@ -0,0 +1,22 @@
+package dev.adam.spigotkit.commands;
+
+/**
+ * An {@link ArgParser} whose values fit in a {@code long}. The dispatcher
+ * stores them in a primitive slot, so {@link CommandContext#getInt} and
+ * {@link CommandContext#getLong} never box; {@link CommandContext#get}
+ * boxes on demand.
+ */
+interface NumericArgParser {
+
+    /**
+     * Parses {@code input} into {@code slots[index]}.
+     *
+     * @return {@code false} if {@code input} is invalid
+     */
+    boolean parseInto(String input, long[] slots, int index);
+
+    /**
+     * The value {@link ArgParser#parse} would have returned for a slot.
+     */
+    Object box(long slot);
+}
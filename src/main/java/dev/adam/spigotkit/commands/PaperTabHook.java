@@ -0,0 +1,77 @@
+package dev.adam.spigotkit.commands;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Bridges to Paper's {@code AsyncTabCompleteEvent} when it exists.
+ *
+ * <p>SpigotKit compiles against the Spigot API, so the event is looked up
+ * and driven reflectively. On plain Spigot {@link #register} simply
+ * returns {@code false}.</p>
+ */
+final class PaperTabHook {
+
+    private static final String EVENT_CLASS = "com.destroystokyo.paper.event.server.AsyncTabCompleteEvent";
+
+    /**
+     * Computes completions for a raw command buffer off the main thread.
+     */
+    interface Handler {
+        /**
+         * @return completions, or {@code null} to leave the event to the server
+         */
+        List<String> complete(CommandSender sender, String buffer) throws Exception;
+    }
+
+    private PaperTabHook() {
+    }
+
+    static boolean register(Plugin plugin, Handler handler) {
+        Class<? extends Event> eventClass;
+        Method getSender;
+        Method getBuffer;
+        Method isCommand;
+        Method isHandled;
+        Method setCompletions;
+        Method setHandled;
+        try {
+            eventClass = Class.forName(EVENT_CLASS).asSubclass(Event.class);
+            getSender = eventClass.getMethod("getSender");
+            getBuffer = eventClass.getMethod("getBuffer");
+            isCommand = eventClass.getMethod("isCommand");
+            isHandled = eventClass.getMethod("isHandled");
+            setCompletions = eventClass.getMethod("setCompletions", List.class);
+            setHandled = eventClass.getMethod("setHandled", boolean.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return false;
+        }
+        Listener listener = new Listener() {
+        };
+        plugin.getServer().getPluginManager().registerEvent(eventClass, listener, EventPriority.NORMAL, (l, event) -> {
+            if (!eventClass.isInstance(event) || !event.isAsynchronous()) {
+                return;
+            }
+            try {
+                if (!(Boolean) isCommand.invoke(event) || (Boolean) isHandled.invoke(event)) {
+                    return;
+                }
+                List<String> completions = handler.complete(
+                        (CommandSender) getSender.invoke(event), (String) getBuffer.invoke(event));
+                if (completions != null) {
+                    setCompletions.invoke(event, completions);
+                    setHandled.invoke(event, true);
+                }
+            } catch (Exception e) {
+                plugin.getLogger().warning("Async tab completion failed: " + e.getMessage());
+            }
+        }, plugin, true);
+        return true;
+    }
+}
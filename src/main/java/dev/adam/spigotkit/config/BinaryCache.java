@@ -0,0 +1,356 @@
+package dev.adam.spigotkit.config;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary copy of a parsed config, stored next to the source file
+ * ({@code config.yml} &rarr; {@code config.ykc}, {@code data.json} &rarr; {@code data.jkc}).
+ *
+ * <p>The header records the source's size, modification time and a 64-bit
+ * FNV-1a hash of its bytes. If size and mtime match, the cache is used
+ * without reading the source at all; if only the mtime differs, the hash
+ * decides, and a match stores the new mtime so the next load skips the
+ * hash again. Any mismatch or decoding problem makes the caller fall back to
+ * parsing the source.</p>
+ *
+ * <p>The value encoding ({@link #writeValue} / {@link #readValue}) is a
+ * small tagged format shared with other binary storage in this package.</p>
+ */
+final class BinaryCache {
+
+    private static final int MAGIC = 0x534B4331; // "SKC1"
+
+    static final byte NULL = 0;
+    static final byte FALSE = 1;
+    static final byte TRUE = 2;
+    static final byte INT = 3;
+    static final byte LONG = 4;
+    static final byte DOUBLE = 5;
+    static final byte STRING = 6;
+    static final byte LIST = 7;
+    static final byte MAP = 8;
+
+    private BinaryCache() {
+    }
+
+    static File cacheFile(File source, Format format) {
+        String name = source.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot < 0 ? name : name.substring(0, dot);
+        return new File(source.getParentFile(), base + (format == Format.YAML ? ".ykc" : ".jkc"));
+    }
+
+    /**
+     * Loads the cached state for {@code source}.
+     *
+     * @return a {@link FileConfiguration} for YAML or a {@link JsonObject}
+     *         for JSON, or {@code null} if there is no valid cache
+     */
+    static Object read(File source, Format format) {
+        File cache = cacheFile(source, format);
+        if (!cache.isFile() || !source.isFile()) {
+            return null;
+        }
+        try {
+            // Read into the heap: a live mapping would stop the rewrite below on Windows.
+            byte[] bytes = Files.readAllBytes(cache.toPath());
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            if (buf.getInt() != MAGIC || buf.get() != (byte) format.ordinal()) {
+                return null;
+            }
+            long size = buf.getLong();
+            int modifiedOffset = buf.position();
+            long modified = buf.getLong();
+            long hash = buf.getLong();
+            if (size != source.length()) {
+                return null;
+            }
+            long sourceModified = source.lastModified();
+            boolean touched = modified != sourceModified;
+            if (touched && hash != hash(source)) {
+                return null;
+            }
+            Object root = readValue(buf);
+            if (!(root instanceof Map)) {
+                return null;
+            }
+            if (touched) {
+                // Same content, new mtime (e.g. copied or checked out again).
+                ByteBuffer.wrap(bytes).putLong(modifiedOffset, sourceModified);
+                ConfigIO.write(cache, bytes);
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) root;
+            if (format == Format.YAML) {
+                YamlConfiguration yaml = new YamlConfiguration();
+                fillSection(yaml, map);
+                return yaml;
+            }
+            return toJson(map);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Encodes {@code state} and queues the cache file write on the config
+     * I/O thread. States containing values the format cannot represent
+     * (e.g. serialized Bukkit objects) are silently not cached.
+     *
+     * @param sourceLength   source size captured before it was parsed
+     * @param sourceModified source mtime captured before it was parsed
+     */
+    static void write(File source, Format format, Object state, long sourceLength, long sourceModified) {
+        byte[] bytes;
+        try {
+            if (source.length() != sourceLength || source.lastModified() != sourceModified) {
+                // Changed while we were parsing; the next load will cache it.
+                return;
+            }
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bos);
+            out.writeInt(MAGIC);
+            out.writeByte(format.ordinal());
+            out.writeLong(sourceLength);
+            out.writeLong(sourceModified);
+            out.writeLong(hash(source));
+            if (state instanceof ConfigurationSection) {
+                writeValue(out, state);
+            } else {
+                writeJson(out, (JsonElement) state);
+            }
+            out.flush();
+            bytes = bos.toByteArray();
+        } catch (IOException | IllegalArgumentException e) {
+            return;
+        }
+        ConfigIO.write(cacheFile(source, format), bytes);
+    }
+
+    /**
+     * Writes a plain Java value: null, Boolean, Number, String, List, Map
+     * or {@link ConfigurationSection}.
+     *
+     * @throws IllegalArgumentException for any other type
+     */
+    static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(INT);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        } else if (value instanceof ConfigurationSection) {
+            writeValue(out, ((ConfigurationSection) value).getValues(false));
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(out, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported value type " + value.getClass().getName());
+        }
+    }
+
+    static void writeJson(DataOutputStream out, JsonElement element) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            out.writeByte(NULL);
+        } else if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            out.writeByte(MAP);
+            out.writeInt(object.size());
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                writeString(out, entry.getKey());
+                writeJson(out, entry.getValue());
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            out.writeByte(LIST);
+            out.writeInt(array.size());
+            for (JsonElement item : array) {
+                writeJson(out, item);
+            }
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                out.writeByte(primitive.getAsBoolean() ? TRUE : FALSE);
+            } else if (primitive.isString()) {
+                out.writeByte(STRING);
+                writeString(out, primitive.getAsString());
+            } else {
+                String raw = primitive.getAsString();
+                boolean integral = raw.indexOf('.') < 0 && raw.indexOf('e') < 0 && raw.indexOf('E') < 0;
+                long asLong = integral ? parseLongOrMin(raw) : Long.MIN_VALUE;
+                if (integral && asLong != Long.MIN_VALUE) {
+                    if (asLong >= Integer.MIN_VALUE && asLong <= Integer.MAX_VALUE) {
+                        out.writeByte(INT);
+                        out.writeInt((int) asLong);
+                    } else {
+                        out.writeByte(LONG);
+                        out.writeLong(asLong);
+                    }
+                } else {
+                    out.writeByte(DOUBLE);
+                    out.writeDouble(primitive.getAsDouble());
+                }
+            }
+        }
+    }
+
+    private static long parseLongOrMin(String raw) {
+        try {
+            return Long.parseLong(raw);
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Reads a value written by {@link #writeValue} or {@link #writeJson}.
+     * Maps come back as {@link LinkedHashMap}, lists as {@link ArrayList}.
+     */
+    static Object readValue(ByteBuffer buf) {
+        byte tag = buf.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case INT:
+                return buf.getInt();
+            case LONG:
+                return buf.getLong();
+            case DOUBLE:
+                return buf.getDouble();
+            case STRING:
+                return readString(buf);
+            case LIST: {
+                int size = buf.getInt();
+                List<Object> list = new ArrayList<Object>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(buf));
+                }
+                return list;
+            }
+            case MAP: {
+                int size = buf.getInt();
+                Map<String, Object> map = new LinkedHashMap<String, Object>();
+                for (int i = 0; i < size; i++) {
+                    String key = readString(buf);
+                    map.put(key, readValue(buf));
+                }
+                return map;
+            }
+            default:
+                throw new IllegalStateException("Unknown value tag " + tag);
+        }
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer buf) {
+        int length = buf.getInt();
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void fillSection(ConfigurationSection section, Map<String, Object> values) {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getValue() instanceof Map) {
+                fillSection(section.createSection(entry.getKey()), (Map<String, Object>) entry.getValue());
+            } else {
+                section.set(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Converts a decoded value tree into Gson elements.
+     */
+    static JsonElement toJson(Object value) {
+        if (value == null) {
+            return JsonNull.INSTANCE;
+        }
+        if (value instanceof Map) {
+            JsonObject object = new JsonObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                object.add(String.valueOf(entry.getKey()), toJson(entry.getValue()));
+            }
+            return object;
+        }
+        if (value instanceof List) {
+            JsonArray array = new JsonArray();
+            for (Object item : (List<?>) value) {
+                array.add(toJson(item));
+            }
+            return array;
+        }
+        if (value instanceof Boolean) {
+            return new JsonPrimitive((Boolean) value);
+        }
+        if (value instanceof Number) {
+            return new JsonPrimitive((Number) value);
+        }
+        return new JsonPrimitive(String.valueOf(value));
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the file's bytes.
+     */
+    private static long hash(File file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
@@ -8,21 +8,33 @@ import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
-import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Unified configuration wrapper for YAML and JSON formats.
@@ -30,21 +42,99 @@ import java.util.Set;
 public final class Config {
 
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Gson GSON_COMPACT = new Gson();
+    private static final int MAX_CACHED_PATHS = 8192;
+    private static final long FLUSH_TIMEOUT_SECONDS = 10L;
+
+    /**
+     * Configs with a scheduled {@link #saveAsync()} that has not been
+     * handed to the I/O thread yet.
+     */
+    private static final Set<Config> PENDING_SAVES = Collections.newSetFromMap(new ConcurrentHashMap<Config, Boolean>());
 
     private final JavaPlugin plugin;
     private final File file;
     private final Format format;
+    private final ConfigOptions options;
 
     private FileConfiguration yamlConfig;
     private JsonObject jsonRoot;
 
-    private Config(JavaPlugin plugin, File file, Format format) {
+    /**
+     * Top-level JSON sections that are indexed but not parsed yet
+     * ({@link ConfigOptions#lazyJson()}), or {@code null}.
+     */
+    private LazyJsonIndex lazyJson;
+
+    /**
+     * Resolved JSON nodes keyed by compiled path. Missing paths are cached
+     * as {@link JsonNull#INSTANCE}. Cleared on every {@link #set} and
+     * {@link #reload()}.
+     */
+    private final ConcurrentHashMap<ConfigPath, JsonElement> jsonCache = new ConcurrentHashMap<ConfigPath, JsonElement>();
+
+    /**
+     * Last published snapshot, or {@code null} until {@link #snapshot()}
+     * is first called. Replaced wholesale, never mutated.
+     */
+    private volatile ConfigSnapshot snapshot;
+    private volatile boolean snapshotStale;
+
+    private CompletableFuture<Void> pendingSave;
+    private volatile long asyncSaveDelay = 1L;
+    private volatile boolean compactJson;
+
+    /**
+     * Top-level keys touched by {@link #set} since the last save or reload.
+     * An empty set means the file on disk is up to date.
+     */
+    private final Set<String> dirtySections = new LinkedHashSet<String>();
+
+    /**
+     * JSON tree handed to the I/O thread by the last save. Sections that
+     * were not touched since then are shared with the next save instead of
+     * being copied again; they are never mutated after being handed over.
+     */
+    private JsonObject savedJson;
+
+    /**
+     * Storage of a {@link Format#LOG} config, otherwise {@code null}.
+     */
+    private final ConfigLog log;
+
+    /**
+     * Paths set since the last save of a {@link Format#LOG} config, in the
+     * order of their latest change; appended as records on the next save.
+     */
+    private final LinkedHashMap<String, JsonElement> logChanges = new LinkedHashMap<String, JsonElement>();
+
+    /**
+     * Database of a {@link Format#SQLITE} config, otherwise {@code null}.
+     */
+    private final SqliteStore sql;
+
+    private volatile long diskModified;
+    private volatile long diskLength;
+
+    private final List<ConfigBinder.Binding<?>> bindings = new CopyOnWriteArrayList<ConfigBinder.Binding<?>>();
+
+    private Config(JavaPlugin plugin, File file, Format format, ConfigOptions options) {
         this.plugin = plugin;
         this.file = file;
         this.format = format;
+        this.options = options;
+        this.log = format == Format.LOG ? new ConfigLog(file) : null;
+        this.sql = format == Format.SQLITE ? new SqliteStore(file) : null;
     }
 
     public static Config load(JavaPlugin plugin, String baseName, Format format) {
+        return load(plugin, baseName, format, ConfigOptions.defaults());
+    }
+
+    public static Config load(JavaPlugin plugin, String baseName, Format format, ConfigOptions options) {
+        if (options == null) {
+            options = ConfigOptions.defaults();
+        }
         if (format == null) {
             format = Format.AUTO;
         }
@@ -61,6 +151,8 @@ public final class Config {
             File yml = new File(dataFolder, baseName + ".yml");
             File yaml = new File(dataFolder, baseName + ".yaml");
             File json = new File(dataFolder, baseName + ".json");
+            File logFile = new File(dataFolder, baseName + ".log");
+            File db = new File(dataFolder, baseName + ".db");
             if (yml.exists()) {
                 targetFile = yml;
                 resolvedFormat = Format.YAML;
@@ -70,6 +162,12 @@ public final class Config {
             } else if (json.exists()) {
                 targetFile = json;
                 resolvedFormat = Format.JSON;
+            } else if (logFile.exists()) {
+                targetFile = logFile;
+                resolvedFormat = Format.LOG;
+            } else if (db.exists()) {
+                targetFile = db;
+                resolvedFormat = Format.SQLITE;
             } else {
                 targetFile = yml;
                 resolvedFormat = Format.YAML;
@@ -77,19 +175,34 @@ public final class Config {
         } else if (format == Format.YAML) {
             targetFile = new File(dataFolder, baseName + ".yml");
             resolvedFormat = Format.YAML;
+        } else if (format == Format.LOG) {
+            targetFile = new File(dataFolder, baseName + ".log");
+            resolvedFormat = Format.LOG;
+        } else if (format == Format.SQLITE) {
+            targetFile = new File(dataFolder, baseName + ".db");
+            resolvedFormat = Format.SQLITE;
         } else {
             targetFile = new File(dataFolder, baseName + ".json");
             resolvedFormat = Format.JSON;
         }
 
-        Config config = new Config(plugin, targetFile, resolvedFormat);
+        Config config = new Config(plugin, targetFile, resolvedFormat, options);
         config.ensureDefaults(baseName);
         config.reload();
         return config;
     }
 
+    /**
+     * Creates a config for an explicit file without reading it. The caller
+     * loads it with {@code install(readFromDisk(), null)}, which may happen
+     * off the main thread as long as the config is not shared yet.
+     */
+    static Config open(JavaPlugin plugin, File file, Format format, ConfigOptions options) {
+        return new Config(plugin, file, format, options == null ? ConfigOptions.defaults() : options);
+    }
+
     private void ensureDefaults(String baseName) {
-        if (file.exists()) {
+        if (file.exists() || format == Format.LOG || format == Format.SQLITE) {
             return;
         }
 
@@ -132,137 +245,563 @@ public final class Config {
         }
     }
 
+    /**
+     * Re-reads the file from disk. If snapshots are in use, a fresh
+     * {@link ConfigSnapshot} is published once the new state is loaded.
+     */
     public void reload() {
+        install(readFromDisk(), null);
+    }
+
+    /**
+     * Parses the file without changing this config's values, so it is safe
+     * to call off the main thread; {@link #install} swaps the result in.
+     * Returns a {@link FileConfiguration} for YAML, a {@link JsonObject} or
+     * {@link LazyJsonIndex} for JSON and LOG, and the {@link SqliteStore}
+     * itself for SQLITE, which reads on demand. LOG files are replayed on
+     * the {@link ConfigIO} thread, see {@link ConfigLog#read()}.
+     */
+    Object readFromDisk() {
+        boolean useCache = options.binaryCache() && format != Format.LOG && format != Format.SQLITE
+                && !(format == Format.JSON && options.lazyJson()) && file.isFile();
+        if (!useCache) {
+            return parseFile();
+        }
+        Object cached = BinaryCache.read(file, format);
+        if (cached != null) {
+            return cached;
+        }
+        long length = file.length();
+        long modified = file.lastModified();
+        Object parsed = parseFile();
+        BinaryCache.write(file, format, parsed, length, modified);
+        return parsed;
+    }
+
+    private Object parseFile() {
         if (format == Format.YAML) {
-            this.yamlConfig = YamlConfiguration.loadConfiguration(file);
-        } else {
-            Reader reader = null;
+            return YamlConfiguration.loadConfiguration(file);
+        }
+        if (format == Format.SQLITE) {
             try {
-                if (!file.exists()) {
-                    this.jsonRoot = new JsonObject();
-                    return;
-                }
-                reader = new FileReader(file);
-                JsonElement element = GSON.fromJson(reader, JsonElement.class);
-                if (element == null || element.isJsonNull()) {
-                    this.jsonRoot = new JsonObject();
-                } else if (element.isJsonObject()) {
-                    this.jsonRoot = element.getAsJsonObject();
-                } else {
-                    this.jsonRoot = new JsonObject();
+                sql.open();
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to open SQLITE config: " + e.getMessage());
+            }
+            return sql;
+        }
+        if (format == Format.LOG) {
+            try {
+                return log.read();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to load LOG config: " + e.getMessage());
+                return new JsonObject();
+            }
+        }
+        if (!file.exists()) {
+            return new JsonObject();
+        }
+        if (options.lazyJson()) {
+            try {
+                LazyJsonIndex index = LazyJsonIndex.open(file);
+                if (index != null) {
+                    return index;
                 }
             } catch (IOException e) {
-                plugin.getLogger().warning("Failed to load JSON config: " + e.getMessage());
-                this.jsonRoot = new JsonObject();
-            } finally {
-                if (reader != null) {
-                    try {
-                        reader.close();
-                    } catch (IOException ignored) {
-                    }
+                plugin.getLogger().warning("Failed to index JSON config, parsing it eagerly: " + e.getMessage());
+            }
+        }
+        Reader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+            JsonElement element = GSON.fromJson(reader, JsonElement.class);
+            if (element != null && element.isJsonObject()) {
+                return element.getAsJsonObject();
+            }
+            return new JsonObject();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to load JSON config: " + e.getMessage());
+            return new JsonObject();
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException ignored) {
                 }
             }
         }
     }
 
-    public void save() {
+    /**
+     * Swaps in state produced by {@link #readFromDisk()}.
+     *
+     * @param state         parsed state
+     * @param builtSnapshot snapshot of {@code state} if the caller already
+     *                      built one, otherwise {@code null}
+     */
+    void install(Object state, ConfigSnapshot builtSnapshot) {
+        jsonCache.clear();
+        synchronized (dirtySections) {
+            dirtySections.clear();
+        }
+        savedJson = null;
+        logChanges.clear();
         if (format == Format.YAML) {
-            try {
-                yamlConfig.save(file);
-            } catch (IOException e) {
-                plugin.getLogger().warning("Failed to save YAML config: " + e.getMessage());
+            this.yamlConfig = (FileConfiguration) state;
+        } else if (state instanceof SqliteStore) {
+            this.jsonRoot = new JsonObject();
+            this.lazyJson = null;
+            sql.reset();
+        } else if (state instanceof LazyJsonIndex) {
+            this.jsonRoot = new JsonObject();
+            this.lazyJson = (LazyJsonIndex) state;
+        } else {
+            this.jsonRoot = (JsonObject) state;
+            this.lazyJson = null;
+        }
+        rememberDiskState();
+        if (snapshot != null) {
+            if (builtSnapshot != null) {
+                snapshotStale = false;
+                snapshot = builtSnapshot;
+            } else {
+                publishSnapshot();
+            }
+        }
+        for (ConfigBinder.Binding<?> binding : bindings) {
+            binding.refresh(this);
+        }
+    }
+
+    /**
+     * Records the file's size and modification time, so the watcher can
+     * tell our own writes apart from external edits.
+     */
+    private void rememberDiskState() {
+        diskModified = file.lastModified();
+        diskLength = file.length();
+    }
+
+    /**
+     * Returns whether the file on disk differs from what this config last
+     * read or wrote.
+     */
+    boolean changedOnDisk() {
+        return file.lastModified() != diskModified || file.length() != diskLength;
+    }
+
+    File file() {
+        return file;
+    }
+
+    Format format() {
+        return format;
+    }
+
+    JavaPlugin plugin() {
+        return plugin;
+    }
+
+    /**
+     * Writes the config to disk and blocks until the write has finished.
+     * Does nothing if no value was {@link #set} since the last save or
+     * reload and the file already exists.
+     *
+     * <p>The data is written to a temporary file first and then moved over
+     * the real one, so a crash mid-write never truncates the config.</p>
+     */
+    public void save() {
+        publishSnapshotIfUsed();
+        if (!needsWrite()) {
+            return;
+        }
+        try {
+            persist().join();
+            rememberDiskState();
+        } catch (RuntimeException e) {
+            markAllDirty();
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            plugin.getLogger().warning("Failed to save " + format + " config: " + cause.getMessage());
+        }
+    }
+
+    /**
+     * Schedules a save on the background I/O thread.
+     *
+     * <p>Calls made within the save window (see {@link #setAsyncSaveDelay(long)})
+     * share one disk write and one returned future. The content is
+     * serialized on the main thread when the window closes, so later
+     * {@link #set} calls in the same tick are included.</p>
+     *
+     * @return future completed once the data is durably on disk
+     */
+    public CompletableFuture<Void> saveAsync() {
+        CompletableFuture<Void> future;
+        synchronized (this) {
+            if (pendingSave != null) {
+                return pendingSave;
             }
+            future = new CompletableFuture<Void>();
+            pendingSave = future;
+        }
+        PENDING_SAVES.add(this);
+        if (plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTaskLater(plugin, this::flushPendingSave, asyncSaveDelay);
         } else {
-            Writer writer = null;
-            try {
-                file.getParentFile().mkdirs();
-                writer = new FileWriter(file);
-                GSON.toJson(jsonRoot != null ? jsonRoot : new JsonObject(), writer);
-            } catch (IOException e) {
-                plugin.getLogger().warning("Failed to save JSON config: " + e.getMessage());
-            } finally {
-                if (writer != null) {
-                    try {
-                        writer.close();
-                    } catch (IOException ignored) {
-                    }
-                }
+            flushPendingSave();
+        }
+        return future;
+    }
+
+    /**
+     * Sets how many ticks {@link #saveAsync()} waits to collect further
+     * saves before writing. Defaults to one tick.
+     */
+    public void setAsyncSaveDelay(long ticks) {
+        this.asyncSaveDelay = Math.max(0L, ticks);
+    }
+
+    /**
+     * Writes any pending {@link #saveAsync()} immediately and waits for all
+     * queued writes to reach the disk.
+     */
+    public void flush() {
+        flushPendingSave();
+        ConfigIO.drain(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Flushes pending saves and, for {@link Format#SQLITE}, closes the
+     * database connections. Do not use the config afterwards.
+     */
+    public void close() {
+        flush();
+        if (sql != null) {
+            sql.close();
+            ConfigIO.drain(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Flushes every config owned by {@code plugin} that still has a pending
+     * async save. Call this from your plugin's {@code onDisable}: scheduled
+     * tasks are cancelled on disable, so pending saves would otherwise be lost.
+     */
+    public static void flushAll(Plugin plugin) {
+        for (Config config : PENDING_SAVES) {
+            if (plugin == null || config.plugin == plugin) {
+                config.flushPendingSave();
+            }
+        }
+        ConfigIO.drain(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Flushes pending async saves of all plugins.
+     */
+    public static void flushAll() {
+        flushAll(null);
+    }
+
+    /**
+     * Waits for every queued write and stops the background I/O thread.
+     * Only for the SpigotKit plugin's own {@code onDisable}, after
+     * {@link #flushAll()}; configs cannot be saved afterwards.
+     */
+    public static void shutdownIO() {
+        ConfigIO.shutdown(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void flushPendingSave() {
+        final CompletableFuture<Void> future;
+        synchronized (this) {
+            future = pendingSave;
+            pendingSave = null;
+        }
+        PENDING_SAVES.remove(this);
+        if (future == null) {
+            return;
+        }
+        if (!needsWrite()) {
+            future.complete(null);
+            return;
+        }
+        CompletableFuture<Void> write;
+        try {
+            publishSnapshotIfUsed();
+            write = persist();
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Failed to save " + format + " config: " + e.getMessage());
+            future.completeExceptionally(e);
+            return;
+        }
+        write.whenComplete((ignored, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Failed to save " + format + " config: " + error.getMessage());
+                markAllDirty();
+                future.completeExceptionally(error);
+            } else {
+                rememberDiskState();
+                future.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Returns whether {@link #set} was called since the last save or reload.
+     */
+    public boolean isDirty() {
+        synchronized (dirtySections) {
+            return !dirtySections.isEmpty();
+        }
+    }
+
+    /**
+     * Switches JSON output between pretty-printed (default) and compact.
+     * Compact output is noticeably smaller and faster to write for large
+     * data files. Has no effect on YAML configs.
+     */
+    public void setCompactJson(boolean compactJson) {
+        if (this.compactJson != compactJson) {
+            this.compactJson = compactJson;
+            markAllDirty();
+        }
+    }
+
+    private boolean needsWrite() {
+        return isDirty() || !file.exists();
+    }
+
+    private void markDirty(String path) {
+        int dot = path.indexOf('.');
+        synchronized (dirtySections) {
+            dirtySections.add(dot < 0 ? path : path.substring(0, dot));
+        }
+    }
+
+    private void markAllDirty() {
+        synchronized (dirtySections) {
+            // A null entry forces a full copy on the next JSON save.
+            dirtySections.add(null);
+        }
+    }
+
+    /**
+     * Captures what needs writing and queues it on the I/O thread. LOG
+     * configs append the paths changed since the last save, or rewrite the
+     * whole tree after a failed write or if the file is gone; SQLITE
+     * configs commit their pending rows in one transaction. Must run on
+     * the thread that mutates this config.
+     */
+    private CompletableFuture<Void> persist() {
+        if (sql != null) {
+            synchronized (dirtySections) {
+                dirtySections.clear();
+            }
+            return sql.flush();
+        }
+        if (log == null) {
+            return ConfigIO.write(file, serialize());
+        }
+        boolean full;
+        synchronized (dirtySections) {
+            full = dirtySections.contains(null) || !file.exists();
+            dirtySections.clear();
+        }
+        if (full) {
+            logChanges.clear();
+            return log.rewrite(jsonRoot != null ? jsonRoot : new JsonObject());
+        }
+        byte[] records = ConfigLog.encode(logChanges);
+        logChanges.clear();
+        return log.append(records);
+    }
+
+    /**
+     * Captures the current state for the I/O thread and clears the dirty set.
+     * Must run on the thread that mutates this config.
+     */
+    private ConfigIO.Content serialize() {
+        Set<String> dirty;
+        synchronized (dirtySections) {
+            dirty = new LinkedHashSet<String>(dirtySections);
+            dirtySections.clear();
+        }
+        if (format == Format.YAML) {
+            String yaml = yamlConfig.saveToString();
+            return writer -> writer.write(yaml);
+        }
+        JsonObject data = jsonSaveView(dirty);
+        Gson gson = compactJson ? GSON_COMPACT : GSON;
+        return writer -> gson.toJson(data, gson.newJsonWriter(writer));
+    }
+
+    /**
+     * Builds the tree for the I/O thread: untouched top-level sections are
+     * reused from the previous save, touched ones are deep-copied.
+     */
+    private JsonObject jsonSaveView(Set<String> dirty) {
+        materializeAll();
+        JsonObject previous = dirty.contains(null) ? null : savedJson;
+        JsonObject view = new JsonObject();
+        if (jsonRoot != null) {
+            for (java.util.Map.Entry<String, JsonElement> entry : jsonRoot.entrySet()) {
+                String key = entry.getKey();
+                JsonElement reused = previous != null && !dirty.contains(key) ? previous.get(key) : null;
+                view.add(key, reused != null ? reused : entry.getValue().deepCopy());
             }
         }
+        savedJson = view;
+        return view;
     }
 
     public boolean contains(String path) {
+        return contains(ConfigPath.of(path));
+    }
+
+    public boolean contains(ConfigPath path) {
         if (format == Format.YAML) {
-            return yamlConfig.contains(path);
+            return yamlConfig.contains(path.toString());
         }
-        return getJson(path) != null && !getJson(path).isJsonNull();
+        return !getJson(path).isJsonNull();
     }
 
     public String getString(String path) {
+        return getString(ConfigPath.of(path));
+    }
+
+    public String getString(ConfigPath path) {
         if (format == Format.YAML) {
-            return yamlConfig.getString(path);
+            return yamlConfig.getString(path.toString());
         }
         JsonElement el = getJson(path);
-        return el != null && el.isJsonPrimitive() ? el.getAsString() : null;
+        return el.isJsonPrimitive() ? el.getAsString() : null;
     }
 
     public String getString(String path, String def) {
+        return getString(ConfigPath.of(path), def);
+    }
+
+    public String getString(ConfigPath path, String def) {
         String value = getString(path);
         return value != null ? value : def;
     }
 
     public int getInt(String path) {
+        return getInt(ConfigPath.of(path));
+    }
+
+    public int getInt(ConfigPath path) {
         if (format == Format.YAML) {
-            return yamlConfig.getInt(path);
+            return yamlConfig.getInt(path.toString());
         }
         JsonElement el = getJson(path);
-        return el != null && el.isJsonPrimitive() ? el.getAsInt() : 0;
+        return el.isJsonPrimitive() ? el.getAsInt() : 0;
     }
 
     public int getInt(String path, int def) {
-        if (!contains(path)) {
+        return getInt(ConfigPath.of(path), def);
+    }
+
+    public int getInt(ConfigPath path, int def) {
+        if (format == Format.YAML) {
+            return yamlConfig.contains(path.toString()) ? yamlConfig.getInt(path.toString()) : def;
+        }
+        JsonElement el = getJson(path);
+        if (el.isJsonNull()) {
+            return def;
+        }
+        return el.isJsonPrimitive() ? el.getAsInt() : 0;
+    }
+
+    public long getLong(String path) {
+        return getLong(ConfigPath.of(path));
+    }
+
+    public long getLong(ConfigPath path) {
+        if (format == Format.YAML) {
+            return yamlConfig.getLong(path.toString());
+        }
+        JsonElement el = getJson(path);
+        return el.isJsonPrimitive() ? el.getAsLong() : 0L;
+    }
+
+    public long getLong(String path, long def) {
+        return getLong(ConfigPath.of(path), def);
+    }
+
+    public long getLong(ConfigPath path, long def) {
+        if (format == Format.YAML) {
+            return yamlConfig.contains(path.toString()) ? yamlConfig.getLong(path.toString()) : def;
+        }
+        JsonElement el = getJson(path);
+        if (el.isJsonNull()) {
             return def;
         }
-        return getInt(path);
+        return el.isJsonPrimitive() ? el.getAsLong() : 0L;
     }
 
     public boolean getBoolean(String path) {
+        return getBoolean(ConfigPath.of(path));
+    }
+
+    public boolean getBoolean(ConfigPath path) {
         if (format == Format.YAML) {
-            return yamlConfig.getBoolean(path);
+            return yamlConfig.getBoolean(path.toString());
         }
         JsonElement el = getJson(path);
-        return el != null && el.isJsonPrimitive() && el.getAsBoolean();
+        return el.isJsonPrimitive() && el.getAsBoolean();
     }
 
     public boolean getBoolean(String path, boolean def) {
-        if (!contains(path)) {
+        return getBoolean(ConfigPath.of(path), def);
+    }
+
+    public boolean getBoolean(ConfigPath path, boolean def) {
+        if (format == Format.YAML) {
+            return yamlConfig.contains(path.toString()) ? yamlConfig.getBoolean(path.toString()) : def;
+        }
+        JsonElement el = getJson(path);
+        if (el.isJsonNull()) {
             return def;
         }
-        return getBoolean(path);
+        return el.isJsonPrimitive() && el.getAsBoolean();
     }
 
     public double getDouble(String path) {
+        return getDouble(ConfigPath.of(path));
+    }
+
+    public double getDouble(ConfigPath path) {
         if (format == Format.YAML) {
-            return yamlConfig.getDouble(path);
+            return yamlConfig.getDouble(path.toString());
         }
         JsonElement el = getJson(path);
-        return el != null && el.isJsonPrimitive() ? el.getAsDouble() : 0.0D;
+        return el.isJsonPrimitive() ? el.getAsDouble() : 0.0D;
     }
 
     public double getDouble(String path, double def) {
-        if (!contains(path)) {
+        return getDouble(ConfigPath.of(path), def);
+    }
+
+    public double getDouble(ConfigPath path, double def) {
+        if (format == Format.YAML) {
+            return yamlConfig.contains(path.toString()) ? yamlConfig.getDouble(path.toString()) : def;
+        }
+        JsonElement el = getJson(path);
+        if (el.isJsonNull()) {
             return def;
         }
-        return getDouble(path);
+        return el.isJsonPrimitive() ? el.getAsDouble() : 0.0D;
     }
 
     public List<String> getStringList(String path) {
         if (format == Format.YAML) {
             return yamlConfig.getStringList(path);
         }
-        JsonElement el = getJson(path);
+        JsonElement el = getJson(ConfigPath.of(path));
         List<String> list = new ArrayList<String>();
-        if (el != null && el.isJsonArray()) {
+        if (el.isJsonArray()) {
             JsonArray arr = el.getAsJsonArray();
             for (JsonElement item : arr) {
                 if (item.isJsonPrimitive()) {
@@ -281,16 +820,20 @@ public final class Config {
     public List<Integer> getIntList(String path) {
         if (format == Format.YAML) {
             List<Integer> list = new ArrayList<Integer>();
-            for (Object o : yamlConfig.getList(path)) {
+            List<?> raw = yamlConfig.getList(path);
+            if (raw == null) {
+                return list;
+            }
+            for (Object o : raw) {
                 if (o instanceof Number) {
                     list.add(((Number) o).intValue());
                 }
             }
             return list;
         }
-        JsonElement el = getJson(path);
+        JsonElement el = getJson(ConfigPath.of(path));
         List<Integer> list = new ArrayList<Integer>();
-        if (el != null && el.isJsonArray()) {
+        if (el.isJsonArray()) {
             JsonArray arr = el.getAsJsonArray();
             for (JsonElement item : arr) {
                 if (item.isJsonPrimitive()) {
@@ -307,17 +850,25 @@ public final class Config {
     }
 
     public void set(String path, Object value) {
+        snapshotStale = true;
+        markDirty(path);
         if (format == Format.YAML) {
             yamlConfig.set(path, value);
             return;
         }
+        if (sql != null) {
+            sql.set(path, toJsonElement(value));
+            return;
+        }
         if (jsonRoot == null) {
             jsonRoot = new JsonObject();
         }
-        String[] parts = path.split("\\.");
+        jsonCache.clear();
+        ConfigPath compiled = ConfigPath.of(path);
+        materialize(compiled.segment(0));
         JsonObject current = jsonRoot;
-        for (int i = 0; i < parts.length - 1; i++) {
-            String key = parts[i];
+        for (int i = 0; i < compiled.length() - 1; i++) {
+            String key = compiled.segment(i);
             JsonElement child = current.get(key);
             if (child == null || !child.isJsonObject()) {
                 JsonObject obj = new JsonObject();
@@ -327,8 +878,268 @@ public final class Config {
                 current = child.getAsJsonObject();
             }
         }
-        String lastKey = parts[parts.length - 1];
-        current.add(lastKey, toJsonElement(value));
+        JsonElement element = toJsonElement(value);
+        current.add(compiled.last(), element);
+        recordLogChange(path, element);
+    }
+
+    /**
+     * Applies several changes in one pass and schedules a single
+     * {@link #saveAsync()}.
+     *
+     * <p>The changes are staged first and applied only once {@code edits}
+     * returns, sorted by path, so parent sections shared by consecutive
+     * paths are walked once instead of once per key. If a snapshot is in
+     * use, one new snapshot is published afterwards; async readers see
+     * either none or all of the changes.</p>
+     *
+     * <pre>
+     * config.edit(tx -&gt; {
+     *     tx.set("stats.kills", kills);
+     *     tx.set("stats.deaths", deaths);
+     *     tx.remove("legacy");
+     * });
+     * </pre>
+     *
+     * @return the save future, or a completed one if nothing was staged
+     */
+    public CompletableFuture<Void> edit(Consumer<ConfigTransaction> edits) {
+        ConfigTransaction tx = new ConfigTransaction();
+        edits.accept(tx);
+        SortedMap<String, Object> changes = tx.changes();
+        if (changes.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        snapshotStale = true;
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            markDirty(change.getKey());
+            if (format == Format.YAML) {
+                yamlConfig.set(change.getKey(), change.getValue());
+            } else if (sql != null) {
+                sql.set(change.getKey(), toJsonElement(change.getValue()));
+            }
+        }
+        if (format != Format.YAML && sql == null) {
+            applyJson(changes);
+        }
+        publishSnapshotIfUsed();
+        return saveAsync();
+    }
+
+    /**
+     * Writes sorted changes into the JSON tree, keeping the chain of parent
+     * objects of the previous path so consecutive paths only walk the
+     * segments where they differ.
+     */
+    private void applyJson(SortedMap<String, Object> changes) {
+        if (jsonRoot == null) {
+            jsonRoot = new JsonObject();
+        }
+        jsonCache.clear();
+        // parents[i + 1] is the object reached through segments[i].
+        List<String> segments = new ArrayList<String>();
+        List<JsonObject> parents = new ArrayList<JsonObject>();
+        parents.add(jsonRoot);
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            ConfigPath compiled = ConfigPath.of(change.getKey());
+            int depth = compiled.length() - 1;
+            int shared = 0;
+            while (shared < depth && shared < segments.size() && segments.get(shared).equals(compiled.segment(shared))) {
+                shared++;
+            }
+            while (segments.size() > shared) {
+                segments.remove(segments.size() - 1);
+                parents.remove(parents.size() - 1);
+            }
+            if (shared == 0) {
+                materialize(compiled.segment(0));
+            }
+            JsonObject current = parents.get(shared);
+            for (int i = shared; i < depth; i++) {
+                String key = compiled.segment(i);
+                JsonElement child = current.get(key);
+                if (child == null || !child.isJsonObject()) {
+                    JsonObject obj = new JsonObject();
+                    current.add(key, obj);
+                    current = obj;
+                } else {
+                    current = child.getAsJsonObject();
+                }
+                segments.add(key);
+                parents.add(current);
+            }
+            JsonElement element = toJsonElement(change.getValue());
+            current.add(compiled.last(), element);
+            recordLogChange(change.getKey(), element);
+        }
+    }
+
+    private void recordLogChange(String path, JsonElement element) {
+        if (log != null) {
+            // Re-inserting moves the path behind any change it overrides.
+            logChanges.remove(path);
+            logChanges.put(path, element);
+        }
+    }
+
+    /**
+     * Maps a section onto an object in one pass and keeps it up to date.
+     *
+     * <p>{@code type} is either a class with a no-argument constructor, whose
+     * non-final instance fields are filled in, or an interface with
+     * no-argument getters, which gets a read-only implementation. Members
+     * read the key of the same name (or {@link ConfigKey}) below
+     * {@code section}; supported types are strings, primitives and their
+     * wrappers, enums, {@code List<String>} and {@code List<Integer>}.
+     * Missing or unparseable keys keep the field's initial value.</p>
+     *
+     * <p>The returned object is refreshed in place on every {@link #reload()},
+     * so it can be stored in a field and read like plain settings. Binding
+     * the same type and section again returns the same object.</p>
+     *
+     * <pre>
+     * HomeSettings homes = config.bind(HomeSettings.class, "homes");
+     * if (count &gt;= homes.max) { ... }
+     * </pre>
+     *
+     * @throws IllegalArgumentException if a member has an unsupported type
+     */
+    public <T> T bind(Class<T> type, String section) {
+        for (ConfigBinder.Binding<?> existing : bindings) {
+            if (existing.isFor(type, section)) {
+                existing.refresh(this);
+                return type.cast(existing.instance());
+            }
+        }
+        ConfigBinder.Binding<T> binding = ConfigBinder.bind(this, type, section);
+        bindings.add(binding);
+        return binding.instance();
+    }
+
+    /**
+     * Returns an immutable, flattened snapshot of this config that is safe
+     * to read from any thread.
+     *
+     * <p>The snapshot reflects the state as of the last load, reload or
+     * save. When called on the main server thread after a {@link #set},
+     * a new snapshot is built and published first; other threads always
+     * get the last published one and never trigger a rebuild. Take the
+     * first snapshot on the main thread (e.g. in {@code onEnable}).</p>
+     */
+    public ConfigSnapshot snapshot() {
+        ConfigSnapshot current = snapshot;
+        if (current == null || (snapshotStale && plugin.getServer().isPrimaryThread())) {
+            current = publishSnapshot();
+        }
+        return current;
+    }
+
+    private void publishSnapshotIfUsed() {
+        if (snapshot != null) {
+            publishSnapshot();
+        }
+    }
+
+    private ConfigSnapshot publishSnapshot() {
+        snapshotStale = false;
+        ConfigSnapshot built = buildSnapshot(liveState());
+        snapshot = built;
+        return built;
+    }
+
+    /**
+     * Flattens either the live state or state returned by {@link #readFromDisk()}.
+     * A lazy index is read without being consumed, so it can still be
+     * installed afterwards.
+     */
+    ConfigSnapshot buildSnapshot(Object state) {
+        if (format == Format.YAML) {
+            return ConfigSnapshot.fromYaml((FileConfiguration) state);
+        }
+        if (state instanceof LazyJsonIndex) {
+            return ConfigSnapshot.fromJson(((LazyJsonIndex) state).readAll());
+        }
+        if (state instanceof SqliteStore) {
+            return ConfigSnapshot.fromJson(sqlTree());
+        }
+        return ConfigSnapshot.fromJson((JsonObject) state);
+    }
+
+    /**
+     * Reads the file and snapshots it for {@link ConfigWatcher}, off the
+     * main thread. A lazy JSON index is parsed up front, so the state that
+     * gets installed is exactly the one the snapshot was built from.
+     */
+    Reloaded readForReload() {
+        Object state = readFromDisk();
+        if (state instanceof LazyJsonIndex) {
+            state = ((LazyJsonIndex) state).takeAll();
+        }
+        return new Reloaded(state, buildSnapshot(state));
+    }
+
+    /**
+     * Returns the fully materialized live state.
+     */
+    private Object liveState() {
+        if (format == Format.YAML) {
+            return yamlConfig;
+        }
+        if (sql != null) {
+            return sqlTree();
+        }
+        materializeAll();
+        return jsonRoot;
+    }
+
+    /**
+     * Parses a lazily indexed top-level JSON section, if it is still pending.
+     */
+    private void materialize(String key) {
+        LazyJsonIndex index = lazyJson;
+        if (index == null || !index.contains(key)) {
+            return;
+        }
+        JsonElement parsed = index.take(key);
+        if (parsed != null && !jsonRoot.has(key)) {
+            jsonRoot.add(key, parsed);
+        }
+    }
+
+    /**
+     * Parses every pending lazy section, keeping the file's key order.
+     */
+    private void materializeAll() {
+        LazyJsonIndex index = lazyJson;
+        if (index == null) {
+            return;
+        }
+        lazyJson = null;
+        JsonObject ordered = new JsonObject();
+        for (String key : index.order()) {
+            JsonElement value = jsonRoot.has(key) ? jsonRoot.get(key) : index.take(key);
+            if (value != null) {
+                ordered.add(key, value);
+            }
+        }
+        for (java.util.Map.Entry<String, JsonElement> entry : jsonRoot.entrySet()) {
+            if (!ordered.has(entry.getKey())) {
+                ordered.add(entry.getKey(), entry.getValue());
+            }
+        }
+        jsonRoot = ordered;
+        jsonCache.clear();
+    }
+
+    /**
+     * Returns the current state as a snapshot without publishing it.
+     */
+    ConfigSnapshot currentSnapshot() {
+        ConfigSnapshot current = snapshot;
+        if (current != null && !snapshotStale) {
+            return current;
+        }
+        return buildSnapshot(liveState());
     }
 
     /**
@@ -343,8 +1154,16 @@ public final class Config {
             }
             return new LinkedHashSet<String>(section.getKeys(false));
         }
-        JsonElement el = getJson(path);
-        if (el == null || !el.isJsonObject()) {
+        if (sql != null) {
+            try {
+                return sql.keys(path);
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to read SQLITE config: " + e.getMessage());
+                return new LinkedHashSet<String>();
+            }
+        }
+        JsonElement el = getJson(ConfigPath.of(path));
+        if (!el.isJsonObject()) {
             return new LinkedHashSet<String>();
         }
         JsonObject obj = el.getAsJsonObject();
@@ -355,18 +1174,50 @@ public final class Config {
         return keys;
     }
 
-    private JsonElement getJson(String path) {
+    /**
+     * Resolves a JSON node, consulting the path cache first.
+     * Never returns {@code null}; missing paths resolve to {@link JsonNull#INSTANCE}.
+     */
+    private JsonElement getJson(ConfigPath path) {
+        if (sql != null) {
+            try {
+                return sql.get(path.toString());
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to read SQLITE config: " + e.getMessage());
+                return JsonNull.INSTANCE;
+            }
+        }
+        JsonElement cached = jsonCache.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        JsonElement resolved = resolveJson(path);
+        if (jsonCache.size() < MAX_CACHED_PATHS) {
+            jsonCache.put(path, resolved);
+        }
+        return resolved;
+    }
+
+    private JsonObject sqlTree() {
+        try {
+            return sql.tree();
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to read SQLITE config: " + e.getMessage());
+            return new JsonObject();
+        }
+    }
+
+    private JsonElement resolveJson(ConfigPath path) {
         if (jsonRoot == null) {
             return JsonNull.INSTANCE;
         }
-        String[] parts = path.split("\\.");
+        materialize(path.segment(0));
         JsonElement current = jsonRoot;
-        for (int i = 0; i < parts.length; i++) {
+        for (int i = 0; i < path.length(); i++) {
             if (!current.isJsonObject()) {
                 return JsonNull.INSTANCE;
             }
-            JsonObject obj = current.getAsJsonObject();
-            current = obj.get(parts[i]);
+            current = current.getAsJsonObject().get(path.segment(i));
             if (current == null) {
                 return JsonNull.INSTANCE;
             }
@@ -392,4 +1243,18 @@ public final class Config {
         }
         return GSON.toJsonTree(value);
     }
+
+    /**
+     * State read by {@link #readForReload()} together with its snapshot.
+     */
+    static final class Reloaded {
+
+        final Object state;
+        final ConfigSnapshot snapshot;
+
+        private Reloaded(Object state, ConfigSnapshot snapshot) {
+            this.state = state;
+            this.snapshot = snapshot;
+        }
+    }
 }
@@ -0,0 +1,314 @@
+package dev.adam.spigotkit.config;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps config sections onto POJOs or interfaces for {@link Config#bind(Class, String)}.
+ *
+ * <p>Reflection runs once per class: the resulting {@link Metadata} (which
+ * keys to read and how to convert them) is cached for the lifetime of the
+ * class. A {@link Binding} additionally pre-compiles the full
+ * {@link ConfigPath} of every key for its section.</p>
+ */
+final class ConfigBinder {
+
+    private static final Map<Class<?>, Metadata> METADATA = new ConcurrentHashMap<Class<?>, Metadata>();
+
+    private ConfigBinder() {
+    }
+
+    static <T> Binding<T> bind(Config config, Class<T> type, String section) {
+        Metadata metadata = METADATA.get(type);
+        if (metadata == null) {
+            metadata = new Metadata(type);
+            Metadata previous = METADATA.putIfAbsent(type, metadata);
+            if (previous != null) {
+                metadata = previous;
+            }
+        }
+        Binding<T> binding = new Binding<T>(type, metadata, section);
+        binding.refresh(config);
+        return binding;
+    }
+
+    /**
+     * Value conversions supported for bound members.
+     */
+    private enum Kind {
+        STRING, INT, LONG, DOUBLE, FLOAT, BOOLEAN, STRING_LIST, INT_LIST, ENUM
+    }
+
+    /**
+     * Per-class reflection result.
+     */
+    private static final class Metadata {
+
+        private final Constructor<?> constructor;
+        private final String[] keys;
+        private final Kind[] kinds;
+        private final Class<?>[] types;
+        private final Field[] fields;
+        private final Map<Method, Integer> methods;
+
+        private Metadata(Class<?> type) {
+            List<String> keyList = new ArrayList<String>();
+            List<Kind> kindList = new ArrayList<Kind>();
+            List<Class<?>> typeList = new ArrayList<Class<?>>();
+            if (type.isInterface()) {
+                this.constructor = null;
+                this.fields = null;
+                this.methods = new HashMap<Method, Integer>();
+                for (Method method : type.getMethods()) {
+                    if (method.getParameterTypes().length != 0 || method.getDeclaringClass() == Object.class) {
+                        continue;
+                    }
+                    methods.put(method, keyList.size());
+                    keyList.add(keyOf(method.getAnnotation(ConfigKey.class), method.getName()));
+                    kindList.add(kindOf(method.getReturnType(), method.getGenericReturnType(), method.getName()));
+                    typeList.add(method.getReturnType());
+                }
+            } else {
+                try {
+                    this.constructor = type.getDeclaredConstructor();
+                    this.constructor.setAccessible(true);
+                } catch (NoSuchMethodException e) {
+                    throw new IllegalArgumentException(type.getName() + " needs a no-argument constructor to be bound");
+                }
+                List<Field> fieldList = new ArrayList<Field>();
+                for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        int mod = field.getModifiers();
+                        if (Modifier.isStatic(mod) || Modifier.isTransient(mod) || Modifier.isFinal(mod) || field.isSynthetic()) {
+                            continue;
+                        }
+                        field.setAccessible(true);
+                        fieldList.add(field);
+                        keyList.add(keyOf(field.getAnnotation(ConfigKey.class), field.getName()));
+                        kindList.add(kindOf(field.getType(), field.getGenericType(), field.getName()));
+                        typeList.add(field.getType());
+                    }
+                }
+                this.fields = fieldList.toArray(new Field[0]);
+                this.methods = null;
+            }
+            this.keys = keyList.toArray(new String[0]);
+            this.kinds = kindList.toArray(new Kind[0]);
+            this.types = typeList.toArray(new Class<?>[0]);
+        }
+
+        private static String keyOf(ConfigKey annotation, String name) {
+            return annotation != null ? annotation.value() : name;
+        }
+
+        private static Kind kindOf(Class<?> type, Type generic, String member) {
+            if (type == String.class) {
+                return Kind.STRING;
+            }
+            if (type == int.class || type == Integer.class) {
+                return Kind.INT;
+            }
+            if (type == long.class || type == Long.class) {
+                return Kind.LONG;
+            }
+            if (type == double.class || type == Double.class) {
+                return Kind.DOUBLE;
+            }
+            if (type == float.class || type == Float.class) {
+                return Kind.FLOAT;
+            }
+            if (type == boolean.class || type == Boolean.class) {
+                return Kind.BOOLEAN;
+            }
+            if (type.isEnum()) {
+                return Kind.ENUM;
+            }
+            if (type == List.class && generic instanceof ParameterizedType) {
+                Type arg = ((ParameterizedType) generic).getActualTypeArguments()[0];
+                if (arg == String.class) {
+                    return Kind.STRING_LIST;
+                }
+                if (arg == Integer.class) {
+                    return Kind.INT_LIST;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported type " + generic.getTypeName() + " for bound member '" + member + "'");
+        }
+    }
+
+    /**
+     * One bound object plus the compiled paths it reads from.
+     */
+    static final class Binding<T> {
+
+        private final Class<T> type;
+        private final String prefix;
+        private final Metadata metadata;
+        private final ConfigPath[] paths;
+        private final T instance;
+        private final Object[] defaults;
+        private volatile Object[] proxyValues;
+
+        @SuppressWarnings("unchecked")
+        private Binding(Class<T> type, Metadata metadata, String section) {
+            this.type = type;
+            this.prefix = section == null || section.isEmpty() ? "" : section + ".";
+            this.metadata = metadata;
+            this.paths = new ConfigPath[metadata.keys.length];
+            for (int i = 0; i < paths.length; i++) {
+                paths[i] = ConfigPath.of(prefix + metadata.keys[i]);
+            }
+            if (metadata.methods != null) {
+                this.defaults = null;
+                this.proxyValues = new Object[paths.length];
+                InvocationHandler handler = (proxy, method, args) -> {
+                    Integer index = metadata.methods.get(method);
+                    if (index != null) {
+                        return proxyValues[index];
+                    }
+                    if (method.getName().equals("toString") && method.getParameterTypes().length == 0) {
+                        return type.getSimpleName() + "(" + section + ")";
+                    }
+                    if (method.getName().equals("hashCode") && method.getParameterTypes().length == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (method.getName().equals("equals") && method.getParameterTypes().length == 1) {
+                        return proxy == args[0];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                };
+                this.instance = (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+            } else {
+                try {
+                    this.instance = (T) metadata.constructor.newInstance();
+                    this.defaults = new Object[paths.length];
+                    for (int i = 0; i < paths.length; i++) {
+                        defaults[i] = metadata.fields[i].get(instance);
+                    }
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalArgumentException("Cannot instantiate " + type.getName(), e);
+                }
+            }
+        }
+
+        T instance() {
+            return instance;
+        }
+
+        /**
+         * Returns whether this binding maps {@code section} onto {@code type}.
+         */
+        boolean isFor(Class<?> type, String section) {
+            return this.type == type && prefix.equals(section == null || section.isEmpty() ? "" : section + ".");
+        }
+
+        /**
+         * Reads every bound key from {@code config} into the bound object.
+         * Missing or unparseable keys fall back to the field initializer (POJOs) or to
+         * zero / {@code null} (interfaces).
+         */
+        void refresh(Config config) {
+            Object[] values = new Object[paths.length];
+            for (int i = 0; i < paths.length; i++) {
+                Object value;
+                try {
+                    value = config.contains(paths[i]) ? read(config, i) : null;
+                } catch (RuntimeException e) {
+                    // e.g. NumberFormatException for "abc" in an int key
+                    value = null;
+                }
+                if (value != null) {
+                    values[i] = value;
+                } else if (defaults != null) {
+                    values[i] = defaults[i];
+                } else {
+                    values[i] = zero(metadata.types[i]);
+                }
+            }
+            if (metadata.fields == null) {
+                proxyValues = values;
+                return;
+            }
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    Field field = metadata.fields[i];
+                    if (values[i] != null || !field.getType().isPrimitive()) {
+                        field.set(instance, values[i]);
+                    }
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private Object read(Config config, int i) {
+            ConfigPath path = paths[i];
+            switch (metadata.kinds[i]) {
+                case STRING:
+                    return config.getString(path);
+                case INT:
+                    return config.getInt(path);
+                case LONG:
+                    return config.getLong(path);
+                case DOUBLE:
+                    return config.getDouble(path);
+                case FLOAT:
+                    return (float) config.getDouble(path);
+                case BOOLEAN:
+                    return config.getBoolean(path);
+                case STRING_LIST:
+                    return Collections.unmodifiableList(config.getStringList(path.toString()));
+                case INT_LIST:
+                    return Collections.unmodifiableList(config.getIntList(path.toString()));
+                case ENUM:
+                    return enumValue(metadata.types[i], config.getString(path));
+                default:
+                    return null;
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static Object enumValue(Class<?> type, String name) {
+            if (name == null) {
+                return null;
+            }
+            try {
+                return Enum.valueOf((Class<? extends Enum>) type, name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private static Object zero(Class<?> type) {
+            if (!type.isPrimitive()) {
+                return null;
+            }
+            if (type == boolean.class) {
+                return Boolean.FALSE;
+            }
+            if (type == long.class) {
+                return 0L;
+            }
+            if (type == double.class) {
+                return 0.0D;
+            }
+            if (type == float.class) {
+                return 0.0F;
+            }
+            return 0;
+        }
+    }
+}
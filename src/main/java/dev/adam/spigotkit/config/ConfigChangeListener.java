@@ -0,0 +1,18 @@
+package dev.adam.spigotkit.config;
+
+import java.util.Set;
+
+/**
+ * Callback fired on the main server thread after {@link ConfigWatcher}
+ * reloaded a config because its file changed on disk.
+ */
+public interface ConfigChangeListener {
+
+    /**
+     * Called after the new state has been swapped in.
+     *
+     * @param config       the reloaded config
+     * @param changedPaths dotted value paths that were added, removed or changed
+     */
+    void onChange(Config config, Set<String> changedPaths);
+}
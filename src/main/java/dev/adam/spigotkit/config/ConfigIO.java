@@ -0,0 +1,152 @@
+package dev.adam.spigotkit.config;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background file writer shared by all {@link Config} instances.
+ *
+ * <p>All writes run on a single daemon thread, so writes to the same file
+ * always land in submission order. Every write goes to a temporary file
+ * next to the target first and is then moved over it, so a crash never
+ * leaves a half-written config behind.</p>
+ */
+final class ConfigIO {
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "SpigotKit Config I/O");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ConfigIO() {
+    }
+
+    /**
+     * Streams a config's serialized form into a writer.
+     */
+    interface Content {
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    private interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * File work that runs on the I/O thread.
+     */
+    interface Task {
+        void run() throws IOException;
+    }
+
+    /**
+     * Queues an atomic write of {@code content} to {@code file}.
+     */
+    static CompletableFuture<Void> write(File file, Content content) {
+        return submit(file, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            content.writeTo(writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Queues an atomic write of raw bytes to {@code file}.
+     */
+    static CompletableFuture<Void> write(File file, byte[] bytes) {
+        return submit(file, out -> out.write(bytes));
+    }
+
+    private static CompletableFuture<Void> submit(File file, Body body) {
+        return run(() -> writeAtomically(file, body));
+    }
+
+    /**
+     * Queues {@code task} behind every write submitted before it.
+     */
+    static CompletableFuture<Void> run(Task task) {
+        CompletableFuture<Void> future = new CompletableFuture<Void>();
+        try {
+            EXECUTOR.execute(() -> {
+                try {
+                    task.run();
+                    future.complete(null);
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new IOException("Config I/O has been shut down", e));
+        }
+        return future;
+    }
+
+    /**
+     * Blocks until every write queued before this call has finished,
+     * or the timeout elapses.
+     */
+    static void drain(long timeout, TimeUnit unit) {
+        try {
+            EXECUTOR.submit(() -> {
+            }).get(timeout, unit);
+        } catch (Exception ignored) {
+        }
+    }
+
+    /**
+     * Finishes every queued write, or gives up after the timeout, and stops
+     * the I/O thread so it does not keep this class loader alive after a
+     * plugin reload. Writes queued afterwards fail.
+     */
+    static void shutdown(long timeout, TimeUnit unit) {
+        EXECUTOR.shutdown();
+        try {
+            EXECUTOR.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Replaces {@code file} with {@code bytes} via a temporary file. Must
+     * run on the I/O thread, e.g. from a {@link #run(Task)} task.
+     */
+    static void writeAtomically(File file, byte[] bytes) throws IOException {
+        writeAtomically(file, out -> out.write(bytes));
+    }
+
+    private static void writeAtomically(File file, Body body) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        File temp = new File(parent, file.getName() + ".tmp");
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            body.writeTo(out);
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
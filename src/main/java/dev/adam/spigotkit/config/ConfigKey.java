@@ -0,0 +1,28 @@
+package dev.adam.spigotkit.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the config key used for a field or interface method bound with
+ * {@link Config#bind(Class, String)}. Without it the field or method name
+ * is used as-is.
+ *
+ * <pre>
+ * public final class HomeSettings {
+ *     &#64;ConfigKey("max-homes")
+ *     public int maxHomes = 3;
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface ConfigKey {
+
+    /**
+     * Key relative to the bound section; may contain dots.
+     */
+    String value();
+}
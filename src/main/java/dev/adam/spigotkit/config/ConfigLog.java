@@ -0,0 +1,322 @@
+package dev.adam.spigotkit.config;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Append-only storage behind {@link Format#LOG}.
+ *
+ * <p>The file is a header followed by length-prefixed records. A record
+ * either sets one dotted path or replaces the whole tree; values use the
+ * {@link BinaryCache} encoding. Loading reads the file into memory and
+ * replays the records in order, so a save only has to append the paths
+ * changed since the previous one. The file is not memory-mapped: Windows
+ * refuses to truncate or replace a file while a mapping is alive.</p>
+ *
+ * <p>Appends, rewrites and compaction all run on the {@link ConfigIO}
+ * thread. Once the log has grown past {@value #COMPACT_MIN_BYTES} bytes
+ * and twice its size after the last compaction, it is replayed there and
+ * replaced by a single tree record. A record cut short by a crash ends the
+ * replay and is cut off by the next append.</p>
+ */
+final class ConfigLog {
+
+    private static final int MAGIC = 0x534B4C31; // "SKL1"
+    private static final byte SET = 1;
+    private static final byte TREE = 2;
+    private static final long COMPACT_MIN_BYTES = 64L * 1024L;
+
+    private final File file;
+
+    /**
+     * Length of the valid prefix if the last replay found a torn record,
+     * otherwise {@code -1}.
+     */
+    private volatile long validLength = -1L;
+
+    /**
+     * File size after the last load, rewrite or compaction.
+     */
+    private volatile long baseLength;
+
+    ConfigLog(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Replays the log into a JSON tree. The replay runs on the I/O thread,
+     * after every queued append, because it also resets where the next
+     * append goes. Blocks until it is done; must not be called from the
+     * I/O thread itself.
+     */
+    JsonObject read() throws IOException {
+        JsonObject[] result = new JsonObject[1];
+        try {
+            ConfigIO.run(() -> result[0] = readNow()).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+        return result[0];
+    }
+
+    private JsonObject readNow() throws IOException {
+        Map<String, Object> root = new LinkedHashMap<String, Object>();
+        if (!file.isFile() || file.length() == 0L) {
+            validLength = -1L;
+            baseLength = 0L;
+            return new JsonObject();
+        }
+        ByteBuffer buf = load(file);
+        long end = replay(buf, root);
+        validLength = end < buf.limit() ? end : -1L;
+        baseLength = end;
+        return BinaryCache.toJson(root).getAsJsonObject();
+    }
+
+    /**
+     * Encodes changed paths, in the order they were made, as set records.
+     * Must run on the thread that mutates the config.
+     */
+    static byte[] encode(Map<String, JsonElement> changes) {
+        Encoder encoder = new Encoder();
+        for (Map.Entry<String, JsonElement> change : changes.entrySet()) {
+            encoder.record(SET, change.getKey(), change.getValue());
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Queues {@code records} (from {@link #encode}) to be appended.
+     */
+    CompletableFuture<Void> append(byte[] records) {
+        return ConfigIO.run(() -> {
+            long size = appendNow(records);
+            if (size >= COMPACT_MIN_BYTES && size > 2L * baseLength) {
+                compactNow();
+            }
+        });
+    }
+
+    /**
+     * Replaces the file with a single tree record holding {@code root}.
+     * The tree is encoded on the calling thread.
+     */
+    CompletableFuture<Void> rewrite(JsonObject root) {
+        Encoder encoder = new Encoder();
+        encoder.header();
+        encoder.record(TREE, null, root);
+        byte[] bytes = encoder.toByteArray();
+        return ConfigIO.run(() -> {
+            ConfigIO.writeAtomically(file, bytes);
+            validLength = -1L;
+            baseLength = bytes.length;
+        });
+    }
+
+    private long appendNow(byte[] records) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            long valid = validLength;
+            if (valid >= 0L && valid < size) {
+                channel.truncate(valid);
+                size = valid;
+            }
+            validLength = -1L;
+            channel.position(size);
+            if (size == 0L) {
+                Encoder encoder = new Encoder();
+                encoder.header();
+                writeFully(channel, encoder.toByteArray());
+            }
+            writeFully(channel, records);
+            channel.force(false);
+            return channel.size();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Rewrites the log as one tree record. Runs on the I/O thread, after
+     * every earlier append.
+     */
+    private void compactNow() throws IOException {
+        Map<String, Object> root = new LinkedHashMap<String, Object>();
+        replay(load(file), root);
+        Encoder encoder = new Encoder();
+        encoder.header();
+        encoder.tree(root);
+        byte[] bytes = encoder.toByteArray();
+        ConfigIO.writeAtomically(file, bytes);
+        baseLength = bytes.length;
+    }
+
+    /**
+     * Applies every complete record to {@code root}.
+     *
+     * @return offset just past the last complete record
+     */
+    private static long replay(ByteBuffer buf, Map<String, Object> root) throws IOException {
+        if (buf.remaining() < 4 || buf.getInt() != MAGIC) {
+            throw new IOException("Not a SpigotKit log file");
+        }
+        long valid = buf.position();
+        while (buf.remaining() >= 4) {
+            int length = buf.getInt();
+            if (length <= 0 || length > buf.remaining()) {
+                break;
+            }
+            int end = buf.position() + length;
+            try {
+                apply(buf, root);
+            } catch (RuntimeException e) {
+                break;
+            }
+            if (buf.position() != end) {
+                break;
+            }
+            valid = end;
+        }
+        return valid;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void apply(ByteBuffer buf, Map<String, Object> root) {
+        byte op = buf.get();
+        if (op == TREE) {
+            Object value = BinaryCache.readValue(buf);
+            root.clear();
+            if (value instanceof Map) {
+                root.putAll((Map<String, Object>) value);
+            }
+            return;
+        }
+        if (op != SET) {
+            throw new IllegalStateException("Unknown log record " + op);
+        }
+        ConfigPath path = ConfigPath.of(BinaryCache.readString(buf));
+        Object value = BinaryCache.readValue(buf);
+        Map<String, Object> current = root;
+        for (int i = 0; i < path.length() - 1; i++) {
+            Object child = current.get(path.segment(i));
+            if (!(child instanceof Map)) {
+                child = new LinkedHashMap<String, Object>();
+                current.put(path.segment(i), child);
+            }
+            current = (Map<String, Object>) child;
+        }
+        if (value == null) {
+            current.remove(path.last());
+        } else {
+            current.put(path.last(), value);
+        }
+    }
+
+    private static ByteBuffer load(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Log file too large: " + size + " bytes");
+            }
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf) < 0) {
+                    break;
+                }
+            }
+            buf.flip();
+            return buf;
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    /**
+     * Builds length-prefixed records in memory.
+     */
+    private static final class Encoder {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        private final DataOutputStream body = new DataOutputStream(payload);
+
+        void header() {
+            try {
+                out.writeInt(MAGIC);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void record(byte op, String path, JsonElement value) {
+            write(op, path, value);
+        }
+
+        /**
+         * Writes a tree record for a replayed tree, without converting it
+         * to JSON first.
+         */
+        void tree(Map<String, Object> root) {
+            write(TREE, null, root);
+        }
+
+        private void write(byte op, String path, Object value) {
+            try {
+                payload.reset();
+                body.writeByte(op);
+                if (path != null) {
+                    BinaryCache.writeString(body, path);
+                }
+                if (value instanceof JsonElement) {
+                    BinaryCache.writeJson(body, (JsonElement) value);
+                } else {
+                    BinaryCache.writeValue(body, value);
+                }
+                body.flush();
+                out.writeInt(payload.size());
+                payload.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        byte[] toByteArray() {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package dev.adam.spigotkit.config;
+
+/**
+ * Immutable load-time options for {@link Config}.
+ *
+ * <pre>
+ * Config shops = Config.load(this, "shops", Format.JSON,
+ *         ConfigOptions.create().lazyJson().build());
+ * </pre>
+ */
+public final class ConfigOptions {
+
+    private static final ConfigOptions DEFAULTS = create().build();
+
+    private final boolean lazyJson;
+    private final boolean binaryCache;
+
+    private ConfigOptions(Builder builder) {
+        this.lazyJson = builder.lazyJson;
+        this.binaryCache = builder.binaryCache;
+    }
+
+    public static Builder create() {
+        return new Builder();
+    }
+
+    /**
+     * Options used by {@link Config#load(org.bukkit.plugin.java.JavaPlugin, String, Format)}.
+     */
+    public static ConfigOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public boolean lazyJson() {
+        return lazyJson;
+    }
+
+    public boolean binaryCache() {
+        return binaryCache;
+    }
+
+    /**
+     * Builder for {@link ConfigOptions}.
+     */
+    public static final class Builder {
+
+        private boolean lazyJson;
+        private boolean binaryCache;
+
+        private Builder() {
+        }
+
+        /**
+         * Parse JSON files lazily: only the byte ranges of top-level
+         * sections are indexed at load, and each section is parsed the first
+         * time a path under it is read or written. Meant for multi-megabyte
+         * data files where most sections are rarely touched.
+         */
+        public Builder lazyJson() {
+            this.lazyJson = true;
+            return this;
+        }
+
+        /**
+         * Keep a binary copy of the parsed file next to it ({@code .ykc} /
+         * {@code .jkc}) and load from that copy while the source is
+         * unchanged, skipping YAML/JSON parsing at startup.
+         *
+         * <p>YAML comments are not part of the cache, so a config loaded
+         * from it loses its comments when saved. Use this for files the
+         * plugin only reads. Ignored together with {@link #lazyJson()}.</p>
+         */
+        public Builder binaryCache() {
+            this.binaryCache = true;
+            return this;
+        }
+
+        public ConfigOptions build() {
+            return new ConfigOptions(this);
+        }
+    }
+}
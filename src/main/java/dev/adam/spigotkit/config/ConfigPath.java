@@ -0,0 +1,126 @@
+package dev.adam.spigotkit.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-compiled dotted configuration path.
+ *
+ * <p>A path is split into its segments once and can then be reused for
+ * any number of lookups. Instances obtained through {@link #of(String)}
+ * are interned, so hot code can either keep a {@code ConfigPath} in a
+ * constant or keep passing plain strings and still avoid re-tokenizing.</p>
+ *
+ * <pre>
+ * private static final ConfigPath MAX_HOMES = ConfigPath.of("homes.max");
+ *
+ * int max = config.getInt(MAX_HOMES, 3);
+ * </pre>
+ */
+public final class ConfigPath {
+
+    /**
+     * Upper bound for the intern table. Paths built from dynamic data
+     * (player names, UUIDs) would otherwise grow it forever; past this
+     * size new paths are still compiled, just not remembered.
+     */
+    private static final int MAX_INTERNED = 4096;
+
+    private static final ConcurrentHashMap<String, ConfigPath> INTERNED = new ConcurrentHashMap<String, ConfigPath>();
+
+    private final String path;
+    private final String[] segments;
+    private final int hash;
+
+    private ConfigPath(String path, String[] segments) {
+        this.path = path;
+        this.segments = segments;
+        this.hash = path.hashCode();
+    }
+
+    /**
+     * Returns the compiled form of a dotted path such as {@code "homes.max"}.
+     *
+     * @param path dotted path, must not be null
+     * @return interned compiled path
+     */
+    public static ConfigPath of(String path) {
+        if (path == null) {
+            throw new IllegalArgumentException("Config path must not be null");
+        }
+        ConfigPath cached = INTERNED.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        ConfigPath compiled = new ConfigPath(path, tokenize(path));
+        if (INTERNED.size() >= MAX_INTERNED) {
+            return compiled;
+        }
+        ConfigPath previous = INTERNED.putIfAbsent(path, compiled);
+        return previous != null ? previous : compiled;
+    }
+
+    private static String[] tokenize(String path) {
+        List<String> parts = new ArrayList<String>();
+        int start = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '.') {
+                parts.add(path.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(path.substring(start));
+        // Match String.split semantics: trailing empty segments are dropped.
+        int size = parts.size();
+        while (size > 1 && parts.get(size - 1).isEmpty()) {
+            size--;
+        }
+        return parts.subList(0, size).toArray(new String[size]);
+    }
+
+    /**
+     * Number of segments in this path.
+     */
+    public int length() {
+        return segments.length;
+    }
+
+    /**
+     * Returns the segment at the given index.
+     */
+    public String segment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * Returns the last segment of this path.
+     */
+    public String last() {
+        return segments[segments.length - 1];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConfigPath)) {
+            return false;
+        }
+        return path.equals(((ConfigPath) o).path);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Returns the original dotted path.
+     */
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,405 @@
+package dev.adam.spigotkit.config;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, flattened view of a {@link Config}.
+ *
+ * <p>Every value and section is stored under its full dotted path.
+ * Numbers and booleans live in a primitive {@code long[]}, so reads never
+ * box or touch Gson / Bukkit objects. A snapshot never changes after it
+ * is built and can be read from any thread, including async chat and
+ * packet threads.</p>
+ *
+ * <p>The root section is stored under the empty path {@code ""}.</p>
+ */
+public final class ConfigSnapshot {
+
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte LIST = 5;
+    private static final byte SECTION = 6;
+
+    // Open-addressed hash table: path -> entry index.
+    private final String[] tableKeys;
+    private final int[] tableEntries;
+    private final int mask;
+
+    // Entry storage, indexed by entry.
+    private final String[] paths;
+    private final byte[] types;
+    private final long[] primitives;
+    private final Object[] objects;
+
+    private ConfigSnapshot(Builder builder) {
+        int size = builder.size;
+        this.paths = Arrays.copyOf(builder.paths, size);
+        this.types = Arrays.copyOf(builder.types, size);
+        this.primitives = Arrays.copyOf(builder.primitives, size);
+        this.objects = Arrays.copyOf(builder.objects, size);
+
+        int capacity = 16;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        this.tableKeys = new String[capacity];
+        this.tableEntries = new int[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = spread(paths[i].hashCode()) & mask;
+            while (tableKeys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            tableKeys[slot] = paths[i];
+            tableEntries[slot] = i;
+        }
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(String path) {
+        int slot = spread(path.hashCode()) & mask;
+        String key;
+        while ((key = tableKeys[slot]) != null) {
+            if (key.equals(path)) {
+                return tableEntries[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Number of paths (values and sections) in this snapshot.
+     */
+    public int size() {
+        return paths.length;
+    }
+
+    /**
+     * Returns all paths in this snapshot, in document order.
+     */
+    public List<String> paths() {
+        return Collections.unmodifiableList(Arrays.asList(paths));
+    }
+
+    public boolean contains(String path) {
+        return indexOf(path) >= 0;
+    }
+
+    public boolean isSection(String path) {
+        int i = indexOf(path);
+        return i >= 0 && types[i] == SECTION;
+    }
+
+    public String getString(String path) {
+        int i = indexOf(path);
+        if (i < 0) {
+            return null;
+        }
+        switch (types[i]) {
+            case STRING:
+                return (String) objects[i];
+            case LONG:
+                return Long.toString(primitives[i]);
+            case DOUBLE:
+                return Double.toString(Double.longBitsToDouble(primitives[i]));
+            case BOOLEAN:
+                return primitives[i] != 0L ? "true" : "false";
+            default:
+                return null;
+        }
+    }
+
+    public String getString(String path, String def) {
+        String value = getString(path);
+        return value != null ? value : def;
+    }
+
+    public int getInt(String path) {
+        return getInt(path, 0);
+    }
+
+    public int getInt(String path, int def) {
+        return (int) getLong(path, def);
+    }
+
+    public long getLong(String path) {
+        return getLong(path, 0L);
+    }
+
+    public long getLong(String path, long def) {
+        int i = indexOf(path);
+        if (i < 0) {
+            return def;
+        }
+        if (types[i] == LONG) {
+            return primitives[i];
+        }
+        if (types[i] == DOUBLE) {
+            return (long) Double.longBitsToDouble(primitives[i]);
+        }
+        return 0L;
+    }
+
+    public double getDouble(String path) {
+        return getDouble(path, 0.0D);
+    }
+
+    public double getDouble(String path, double def) {
+        int i = indexOf(path);
+        if (i < 0) {
+            return def;
+        }
+        if (types[i] == DOUBLE) {
+            return Double.longBitsToDouble(primitives[i]);
+        }
+        if (types[i] == LONG) {
+            return primitives[i];
+        }
+        return 0.0D;
+    }
+
+    public boolean getBoolean(String path) {
+        return getBoolean(path, false);
+    }
+
+    public boolean getBoolean(String path, boolean def) {
+        int i = indexOf(path);
+        if (i < 0) {
+            return def;
+        }
+        return types[i] == BOOLEAN && primitives[i] != 0L;
+    }
+
+    /**
+     * Returns the raw list stored at a path, or an empty list. Elements
+     * are {@link String}, {@link Long}, {@link Double}, {@link Boolean}
+     * or {@code null}.
+     */
+    public List<Object> getList(String path) {
+        int i = indexOf(path);
+        if (i < 0 || types[i] != LIST) {
+            return Collections.emptyList();
+        }
+        @SuppressWarnings("unchecked")
+        List<Object> list = (List<Object>) objects[i];
+        return list;
+    }
+
+    public List<String> getStringList(String path) {
+        List<Object> raw = getList(path);
+        List<String> list = new ArrayList<String>(raw.size());
+        for (Object o : raw) {
+            if (o != null) {
+                list.add(String.valueOf(o));
+            }
+        }
+        return list;
+    }
+
+    public List<Integer> getIntList(String path) {
+        List<Object> raw = getList(path);
+        List<Integer> list = new ArrayList<Integer>(raw.size());
+        for (Object o : raw) {
+            if (o instanceof Number) {
+                list.add(((Number) o).intValue());
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns the direct child keys of a section, or an empty set.
+     */
+    public Set<String> getSectionKeys(String path) {
+        int i = indexOf(path);
+        if (i < 0 || types[i] != SECTION) {
+            return Collections.emptySet();
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> keys = (Set<String>) objects[i];
+        return keys;
+    }
+
+    /**
+     * Returns the value paths (not sections) that were added, removed or
+     * changed between two snapshots.
+     */
+    static Set<String> changedPaths(ConfigSnapshot before, ConfigSnapshot after) {
+        Set<String> changed = new LinkedHashSet<String>();
+        for (int i = 0; i < before.paths.length; i++) {
+            if (before.types[i] == SECTION) {
+                continue;
+            }
+            int j = after.indexOf(before.paths[i]);
+            if (j < 0 || !sameValue(before, i, after, j)) {
+                changed.add(before.paths[i]);
+            }
+        }
+        for (int j = 0; j < after.paths.length; j++) {
+            if (after.types[j] != SECTION && before.indexOf(after.paths[j]) < 0) {
+                changed.add(after.paths[j]);
+            }
+        }
+        return changed;
+    }
+
+    private static boolean sameValue(ConfigSnapshot a, int i, ConfigSnapshot b, int j) {
+        if (a.types[i] != b.types[j] || a.primitives[i] != b.primitives[j]) {
+            return false;
+        }
+        Object x = a.objects[i];
+        Object y = b.objects[j];
+        return x == null ? y == null : x.equals(y);
+    }
+
+    static ConfigSnapshot fromJson(JsonObject root) {
+        Builder builder = new Builder();
+        if (root != null) {
+            builder.addJsonSection("", root);
+        } else {
+            builder.addSection("", Collections.<String>emptySet());
+        }
+        return builder.build();
+    }
+
+    static ConfigSnapshot fromYaml(ConfigurationSection root) {
+        Builder builder = new Builder();
+        if (root == null) {
+            builder.addSection("", Collections.<String>emptySet());
+            return builder.build();
+        }
+        builder.addSection("", root.getKeys(false));
+        for (Map.Entry<String, Object> entry : root.getValues(true).entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof ConfigurationSection) {
+                builder.addSection(entry.getKey(), ((ConfigurationSection) value).getKeys(false));
+            } else {
+                builder.addValue(entry.getKey(), value);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Accumulates flattened entries before the hash table is built.
+     */
+    private static final class Builder {
+
+        private String[] paths = new String[32];
+        private byte[] types = new byte[32];
+        private long[] primitives = new long[32];
+        private Object[] objects = new Object[32];
+        private int size;
+
+        private void add(String path, byte type, long primitive, Object object) {
+            if (size == paths.length) {
+                int capacity = size * 2;
+                paths = Arrays.copyOf(paths, capacity);
+                types = Arrays.copyOf(types, capacity);
+                primitives = Arrays.copyOf(primitives, capacity);
+                objects = Arrays.copyOf(objects, capacity);
+            }
+            paths[size] = path;
+            types[size] = type;
+            primitives[size] = primitive;
+            objects[size] = object;
+            size++;
+        }
+
+        private void addSection(String path, Set<String> keys) {
+            add(path, SECTION, 0L, Collections.unmodifiableSet(new LinkedHashSet<String>(keys)));
+        }
+
+        private void addValue(String path, Object value) {
+            if (value == null) {
+                return;
+            }
+            if (value instanceof Boolean) {
+                add(path, BOOLEAN, ((Boolean) value) ? 1L : 0L, null);
+            } else if (value instanceof Double || value instanceof Float) {
+                add(path, DOUBLE, Double.doubleToRawLongBits(((Number) value).doubleValue()), null);
+            } else if (value instanceof Number) {
+                add(path, LONG, ((Number) value).longValue(), null);
+            } else if (value instanceof List) {
+                List<Object> list = new ArrayList<Object>();
+                for (Object o : (List<?>) value) {
+                    list.add(normalize(o));
+                }
+                add(path, LIST, 0L, Collections.unmodifiableList(list));
+            } else {
+                add(path, STRING, 0L, String.valueOf(value));
+            }
+        }
+
+        private void addJsonSection(String path, JsonObject object) {
+            addSection(path, object.keySet());
+            String prefix = path.isEmpty() ? "" : path + ".";
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                String childPath = prefix + entry.getKey();
+                JsonElement value = entry.getValue();
+                if (value.isJsonObject()) {
+                    addJsonSection(childPath, value.getAsJsonObject());
+                } else if (value.isJsonArray()) {
+                    List<Object> list = new ArrayList<Object>();
+                    for (JsonElement item : (JsonArray) value) {
+                        list.add(item.isJsonPrimitive() ? fromPrimitive(item.getAsJsonPrimitive()) : null);
+                    }
+                    add(childPath, LIST, 0L, Collections.unmodifiableList(list));
+                } else if (value.isJsonPrimitive()) {
+                    addValue(childPath, fromPrimitive(value.getAsJsonPrimitive()));
+                }
+            }
+        }
+
+        private static Object normalize(Object o) {
+            if (o instanceof Double || o instanceof Float) {
+                return ((Number) o).doubleValue();
+            }
+            if (o instanceof Number) {
+                return ((Number) o).longValue();
+            }
+            if (o == null || o instanceof Boolean || o instanceof String) {
+                return o;
+            }
+            return String.valueOf(o);
+        }
+
+        private static Object fromPrimitive(JsonPrimitive primitive) {
+            if (primitive.isBoolean()) {
+                return primitive.getAsBoolean();
+            }
+            if (primitive.isNumber()) {
+                double d = primitive.getAsDouble();
+                String raw = primitive.getAsString();
+                boolean integral = raw.indexOf('.') < 0 && raw.indexOf('e') < 0 && raw.indexOf('E') < 0;
+                if (integral && d >= Long.MIN_VALUE && d <= Long.MAX_VALUE) {
+                    return primitive.getAsLong();
+                }
+                return d;
+            }
+            return primitive.getAsString();
+        }
+
+        private ConfigSnapshot build() {
+            return new ConfigSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package dev.adam.spigotkit.config;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Changes collected by {@link Config#edit}.
+ *
+ * <p>Nothing touches the config until the edit callback returns; if it
+ * throws, the config is left as it was. Changes are kept sorted by path,
+ * so the config can apply them in one pass that walks each shared parent
+ * section only once.</p>
+ */
+public final class ConfigTransaction {
+
+    private final TreeMap<String, Object> changes = new TreeMap<String, Object>();
+
+    ConfigTransaction() {
+    }
+
+    /**
+     * Stages a value, with the same semantics as {@link Config#set}.
+     */
+    public ConfigTransaction set(String path, Object value) {
+        if (path == null) {
+            throw new IllegalArgumentException("Config path must not be null");
+        }
+        // Setting a section replaces anything staged below it. What is left
+        // sorts parents before children, so key order is the order of the calls.
+        changes.subMap(path + ".", path + "/").clear();
+        changes.put(path, value);
+        return this;
+    }
+
+    /**
+     * Stages {@code set(path, null)}.
+     */
+    public ConfigTransaction remove(String path) {
+        return set(path, null);
+    }
+
+    /**
+     * Number of staged paths.
+     */
+    public int size() {
+        return changes.size();
+    }
+
+    SortedMap<String, Object> changes() {
+        return changes;
+    }
+}
@@ -0,0 +1,270 @@
+package dev.adam.spigotkit.config;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in hot reload for {@link Config} files.
+ *
+ * <p>Watches the directories of registered configs with a
+ * {@link WatchService}. When a file changes, the watcher waits until no
+ * further events arrived for the debounce delay, parses the file on its
+ * own thread and then swaps the new state in on the main thread, where
+ * the registered {@link ConfigChangeListener}s are called.</p>
+ *
+ * <p>Writes made by {@link Config#save()} / {@link Config#saveAsync()}
+ * are recognised and do not trigger a reload. {@link Format#SQLITE}
+ * configs cannot be watched.</p>
+ *
+ * <pre>
+ * watcher = ConfigWatcher.create(this)
+ *     .watch(config, (cfg, changed) -&gt; getLogger().info("Changed: " + changed))
+ *     .start();
+ *
+ * // onDisable
+ * watcher.close();
+ * </pre>
+ */
+public final class ConfigWatcher implements AutoCloseable {
+
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 500L;
+
+    private final Plugin plugin;
+    private final Map<Path, Watched> watched = new ConcurrentHashMap<Path, Watched>();
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<WatchKey, Path>();
+    private volatile long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+    private volatile WatchService service;
+    private volatile Thread thread;
+
+    private ConfigWatcher(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public static ConfigWatcher create(Plugin plugin) {
+        return new ConfigWatcher(plugin);
+    }
+
+    /**
+     * Sets how long a file must stay quiet before it is reloaded.
+     */
+    public ConfigWatcher debounce(long delay, TimeUnit unit) {
+        this.debounceMillis = Math.max(0L, unit.toMillis(delay));
+        return this;
+    }
+
+    /**
+     * Reload {@code config} whenever its file changes.
+     */
+    public ConfigWatcher watch(Config config) {
+        return watch(config, null);
+    }
+
+    /**
+     * Reload {@code config} whenever its file changes and notify
+     * {@code listener} afterwards.
+     *
+     * @throws IllegalArgumentException for {@link Format#SQLITE} configs,
+     *                                  whose database changes on every commit
+     */
+    public ConfigWatcher watch(Config config, ConfigChangeListener listener) {
+        if (config.format() == Format.SQLITE) {
+            throw new IllegalArgumentException("SQLITE configs cannot be watched");
+        }
+        Path path = config.file().toPath().toAbsolutePath().normalize();
+        Watched entry = watched.get(path);
+        if (entry == null) {
+            entry = new Watched(config);
+            watched.put(path, entry);
+        }
+        if (listener != null) {
+            entry.listeners.add(listener);
+        }
+        if (service != null) {
+            registerDirectory(path.getParent());
+        }
+        return this;
+    }
+
+    /**
+     * Starts the background watch thread. Does nothing if already running.
+     */
+    public synchronized ConfigWatcher start() {
+        if (thread != null) {
+            return this;
+        }
+        try {
+            service = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to start config watcher: " + e.getMessage());
+            return this;
+        }
+        for (Path path : watched.keySet()) {
+            registerDirectory(path.getParent());
+        }
+        thread = new Thread(this::run, "SpigotKit Config Watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Stops watching. Pending reloads are dropped.
+     */
+    @Override
+    public synchronized void close() {
+        Thread running = thread;
+        thread = null;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException ignored) {
+            }
+            service = null;
+        }
+        if (running != null) {
+            running.interrupt();
+        }
+        directories.clear();
+    }
+
+    private void registerDirectory(Path dir) {
+        if (dir == null || directories.containsValue(dir)) {
+            return;
+        }
+        try {
+            dir.toFile().mkdirs();
+            WatchKey key = dir.register(service,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            directories.put(key, dir);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to watch config directory " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private void run() {
+        Map<Path, Long> deadlines = new HashMap<Path, Long>();
+        WatchService ws = service;
+        while (thread == Thread.currentThread()) {
+            try {
+                long timeout = nextTimeout(deadlines);
+                WatchKey key = timeout < 0L ? ws.take() : ws.poll(timeout, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    collect(key, deadlines);
+                }
+                fireDue(deadlines);
+            } catch (InterruptedException e) {
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    private long nextTimeout(Map<Path, Long> deadlines) {
+        if (deadlines.isEmpty()) {
+            return -1L;
+        }
+        long now = System.currentTimeMillis();
+        long next = Long.MAX_VALUE;
+        for (Long deadline : deadlines.values()) {
+            next = Math.min(next, deadline);
+        }
+        return Math.max(1L, next - now);
+    }
+
+    private void collect(WatchKey key, Map<Path, Long> deadlines) {
+        Path dir = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                continue;
+            }
+            Path changed = dir.resolve((Path) event.context()).toAbsolutePath().normalize();
+            if (watched.containsKey(changed)) {
+                deadlines.put(changed, System.currentTimeMillis() + debounceMillis);
+            }
+        }
+        key.reset();
+    }
+
+    private void fireDue(Map<Path, Long> deadlines) {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, Long>> it = deadlines.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Long> entry = it.next();
+            if (entry.getValue() > now) {
+                continue;
+            }
+            it.remove();
+            Watched target = watched.get(entry.getKey());
+            if (target != null) {
+                reload(target);
+            }
+        }
+    }
+
+    /**
+     * Parses the file on the watcher thread, then installs it on the main thread.
+     */
+    private void reload(Watched target) {
+        Config config = target.config;
+        if (!config.changedOnDisk()) {
+            return;
+        }
+        Config.Reloaded reloaded;
+        try {
+            reloaded = config.readForReload();
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Failed to reload " + config.file().getName() + ": " + e.getMessage());
+            return;
+        }
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            if (config.isDirty()) {
+                plugin.getLogger().warning(config.file().getName()
+                        + " was edited on disk; discarding unsaved in-memory changes.");
+            }
+            ConfigSnapshot before = config.currentSnapshot();
+            config.install(reloaded.state, reloaded.snapshot);
+            Set<String> changed = ConfigSnapshot.changedPaths(before, reloaded.snapshot);
+            if (changed.isEmpty()) {
+                return;
+            }
+            for (ConfigChangeListener listener : target.listeners) {
+                try {
+                    listener.onChange(config, changed);
+                } catch (Throwable t) {
+                    plugin.getLogger().severe("Error in config change listener: " + t.getMessage());
+                }
+            }
+        });
+    }
+
+    private static final class Watched {
+
+        private final Config config;
+        private final List<ConfigChangeListener> listeners = new CopyOnWriteArrayList<ConfigChangeListener>();
+
+        private Watched(Config config) {
+            this.config = config;
+        }
+    }
+}
@@ -6,5 +6,20 @@ package dev.adam.spigotkit.config;
 public enum Format {
     YAML,
     JSON,
+
+    /**
+     * Append-only binary log ({@code .log}) for data that changes often,
+     * such as counters. Read like JSON; a save only appends the paths set
+     * since the previous save, and the file is compacted in the background.
+     */
+    LOG,
+
+    /**
+     * SQLite database ({@code .db}) with one row per value, for data sets
+     * too large to keep in memory. Values are read on demand and cached;
+     * saves commit the changes in one background transaction. Uses the
+     * SQLite JDBC driver bundled with the server.
+     */
+    SQLITE,
     AUTO
 }
@@ -0,0 +1,275 @@
+package dev.adam.spigotkit.config;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Byte-offset index over the top-level sections of a JSON file.
+ *
+ * <p>Opening the index reads the raw bytes and only scans them structurally
+ * (strings, brackets and commas); no values are materialized. A section is
+ * parsed with a {@link JsonReader} straight from those bytes the first time
+ * it is requested. The bytes live on the heap rather than in a mapping,
+ * so a save can still replace the file on Windows.</p>
+ */
+final class LazyJsonIndex {
+
+    private final ByteBuffer data;
+    private final Map<String, long[]> sections;
+    private final List<String> order;
+
+    private LazyJsonIndex(ByteBuffer data, Map<String, long[]> sections) {
+        this.data = data;
+        this.sections = sections;
+        this.order = new ArrayList<String>(sections.keySet());
+    }
+
+    /**
+     * Reads and indexes {@code file}.
+     *
+     * @return the index, or {@code null} if the file is not a plain JSON
+     *         object this scanner understands (the caller should parse it eagerly)
+     */
+    static LazyJsonIndex open(File file) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        Map<String, long[]> sections = new Scanner(data).scanObject();
+        return sections != null ? new LazyJsonIndex(data, sections) : null;
+    }
+
+    /**
+     * All top-level keys in file order, parsed or not.
+     */
+    List<String> order() {
+        return order;
+    }
+
+    synchronized boolean contains(String key) {
+        return sections.containsKey(key);
+    }
+
+    /**
+     * Parses and forgets the section stored under {@code key}.
+     *
+     * @return the parsed value, or {@code null} if the key is not indexed
+     */
+    synchronized JsonElement take(String key) {
+        long[] range = sections.remove(key);
+        return range != null ? parse(range) : null;
+    }
+
+    /**
+     * Parses every remaining section into a new object, in file order,
+     * without forgetting any of them.
+     */
+    synchronized JsonObject readAll() {
+        JsonObject root = new JsonObject();
+        for (Map.Entry<String, long[]> entry : sections.entrySet()) {
+            root.add(entry.getKey(), parse(entry.getValue()));
+        }
+        return root;
+    }
+
+    private JsonElement parse(long[] range) {
+        ByteBuffer slice = data.duplicate();
+        slice.limit((int) range[1]);
+        slice.position((int) range[0]);
+        JsonReader reader = new JsonReader(new InputStreamReader(new ByteBufferInputStream(slice.slice()), StandardCharsets.UTF_8));
+        return JsonParser.parseReader(reader);
+    }
+
+    /**
+     * Parses every remaining section into a new object, in file order.
+     */
+    synchronized JsonObject takeAll() {
+        JsonObject root = new JsonObject();
+        for (String key : sections.keySet().toArray(new String[0])) {
+            root.add(key, take(key));
+        }
+        return root;
+    }
+
+    /**
+     * Single-pass structural scanner for one top-level JSON object.
+     */
+    private static final class Scanner {
+
+        private final ByteBuffer buf;
+        private int pos;
+
+        private Scanner(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        private Map<String, long[]> scanObject() {
+            Map<String, long[]> result = new LinkedHashMap<String, long[]>();
+            skipWhitespace();
+            if (!expect('{')) {
+                return null;
+            }
+            skipWhitespace();
+            if (peek() == '}') {
+                return result;
+            }
+            while (true) {
+                skipWhitespace();
+                int keyStart = pos;
+                if (!skipString()) {
+                    return null;
+                }
+                String key = decodeKey(keyStart, pos);
+                skipWhitespace();
+                if (!expect(':')) {
+                    return null;
+                }
+                skipWhitespace();
+                int valueStart = pos;
+                if (!skipValue()) {
+                    return null;
+                }
+                result.put(key, new long[]{valueStart, pos});
+                skipWhitespace();
+                int next = peek();
+                pos++;
+                if (next == '}') {
+                    return result;
+                }
+                if (next != ',') {
+                    return null;
+                }
+            }
+        }
+
+        private boolean skipValue() {
+            int c = peek();
+            if (c == '"') {
+                return skipString();
+            }
+            if (c == '{' || c == '[') {
+                int depth = 0;
+                while (pos < buf.limit()) {
+                    int b = buf.get(pos);
+                    if (b == '"') {
+                        if (!skipString()) {
+                            return false;
+                        }
+                        continue;
+                    }
+                    pos++;
+                    if (b == '{' || b == '[') {
+                        depth++;
+                    } else if (b == '}' || b == ']') {
+                        if (--depth == 0) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+            int start = pos;
+            while (pos < buf.limit()) {
+                int b = buf.get(pos);
+                if (b == ',' || b == '}' || b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                    break;
+                }
+                pos++;
+            }
+            return pos > start;
+        }
+
+        private boolean skipString() {
+            if (!expect('"')) {
+                return false;
+            }
+            while (pos < buf.limit()) {
+                int b = buf.get(pos++);
+                if (b == '\\') {
+                    pos++;
+                } else if (b == '"') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String decodeKey(int start, int end) {
+            boolean escaped = false;
+            byte[] bytes = new byte[end - start - 2];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buf.get(start + 1 + i);
+                if (bytes[i] == '\\') {
+                    escaped = true;
+                }
+            }
+            String raw = new String(bytes, StandardCharsets.UTF_8);
+            if (!escaped) {
+                return raw;
+            }
+            try {
+                return new JsonReader(new StringReader('"' + raw + '"')).nextString();
+            } catch (IOException e) {
+                return raw;
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < buf.limit()) {
+                int b = buf.get(pos);
+                if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private int peek() {
+            return pos < buf.limit() ? buf.get(pos) : -1;
+        }
+
+        private boolean expect(char c) {
+            if (peek() != c) {
+                return false;
+            }
+            pos++;
+            return true;
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buf;
+
+        private ByteBufferInputStream(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buf.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+    }
+}
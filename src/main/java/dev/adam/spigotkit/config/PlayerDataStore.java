@@ -0,0 +1,398 @@
+package dev.adam.spigotkit.config;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * One {@link Config} file per player, loaded off the main thread and kept
+ * in a bounded LRU cache.
+ *
+ * <p>Files are read on the login thread during
+ * {@link AsyncPlayerPreLoginEvent}, so a player's data is normally in
+ * memory before they join and {@link #get(UUID)} never touches the disk.
+ * When a player quits, changes are written in the background
+ * ({@link Config#saveAsync()}) and the entry stays cached until it is
+ * evicted. Online players are never evicted.</p>
+ *
+ * <p>Do not keep the returned {@link Config} in a field or across ticks
+ * for an offline player: look it up again each time. Once an entry is
+ * evicted, changes made through an old reference are not saved, and the
+ * next load reads a fresh instance from disk without them.</p>
+ *
+ * <p>Files live in hashed subdirectories, e.g.
+ * {@code players/3f/<uuid>.json}, so no single folder grows to hundreds of
+ * thousands of entries. Files in the old flat layout
+ * ({@code players/<uuid>.json}) are moved over on first load.</p>
+ *
+ * <pre>
+ * players = PlayerDataStore.create(this).capacity(1000).start();
+ *
+ * Config data = players.get(player.getUniqueId());
+ * data.set("stats.kills", data.getInt("stats.kills", 0) + 1);
+ *
+ * // onDisable
+ * players.flush();
+ * </pre>
+ */
+public final class PlayerDataStore {
+
+    private static final int DEFAULT_CAPACITY = 1000;
+    private static final long LOAD_TIMEOUT_SECONDS = 10L;
+
+    /**
+     * How long a player stays pinned after pre-login while they have not
+     * joined yet.
+     */
+    private static final long LOGIN_GRACE_MILLIS = 60000L;
+
+    private final JavaPlugin plugin;
+    private volatile File directory;
+    private volatile Format format = Format.JSON;
+    private volatile ConfigOptions options = ConfigOptions.defaults();
+    private volatile int capacity = DEFAULT_CAPACITY;
+
+    /**
+     * Loaded configs in access order, least recently used first.
+     */
+    private final LinkedHashMap<UUID, Config> cache = new LinkedHashMap<UUID, Config>(64, 0.75f, true);
+    private final Map<UUID, CompletableFuture<Config>> loading = new ConcurrentHashMap<UUID, CompletableFuture<Config>>();
+
+    /**
+     * Last background write per player, so a reload after eviction waits
+     * for it instead of reading stale data.
+     */
+    private final Map<UUID, CompletableFuture<Void>> writing = new ConcurrentHashMap<UUID, CompletableFuture<Void>>();
+
+    /**
+     * Players between pre-login and join, with the time they were pinned.
+     */
+    private final Map<UUID, Long> joining = new ConcurrentHashMap<UUID, Long>();
+
+    private volatile boolean started;
+
+    private PlayerDataStore(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.directory = new File(plugin.getDataFolder(), "players");
+    }
+
+    public static PlayerDataStore create(JavaPlugin plugin) {
+        if (plugin == null) {
+            throw new IllegalArgumentException("Plugin must not be null");
+        }
+        return new PlayerDataStore(plugin);
+    }
+
+    /**
+     * Folder below the plugin's data folder. Defaults to {@code players}.
+     */
+    public PlayerDataStore directory(String name) {
+        this.directory = new File(plugin.getDataFolder(), name);
+        return this;
+    }
+
+    /**
+     * File format of the player files. Defaults to {@link Format#JSON};
+     * {@link Format#AUTO} is treated as JSON. {@link Format#LOG} suits
+     * counters that change all the time.
+     */
+    public PlayerDataStore format(Format format) {
+        if (format == Format.SQLITE) {
+            throw new IllegalArgumentException("Player data files cannot use SQLITE");
+        }
+        this.format = format == null || format == Format.AUTO ? Format.JSON : format;
+        return this;
+    }
+
+    public PlayerDataStore options(ConfigOptions options) {
+        this.options = options == null ? ConfigOptions.defaults() : options;
+        return this;
+    }
+
+    /**
+     * Number of configs kept in memory. Online players are always kept,
+     * even if there are more of them. Defaults to {@value #DEFAULT_CAPACITY}.
+     */
+    public PlayerDataStore capacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Registers the login and quit listeners.
+     */
+    public PlayerDataStore start() {
+        if (!started) {
+            started = true;
+            plugin.getServer().getPluginManager().registerEvents(new LoginListener(), plugin);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the player's config if it is loaded, otherwise {@code null}.
+     * Never reads from disk. The instance is only valid while it stays
+     * cached, see the class description.
+     */
+    public Config get(UUID id) {
+        synchronized (cache) {
+            return cache.get(id);
+        }
+    }
+
+    public boolean isLoaded(UUID id) {
+        synchronized (cache) {
+            return cache.containsKey(id);
+        }
+    }
+
+    /**
+     * Number of configs currently in memory.
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Returns the player's config, reading it on a background thread if it
+     * is not loaded yet. Use this for offline players, and use the result
+     * right away: it may be evicted once the callback returns.
+     *
+     * @return future completed on the main thread
+     */
+    public CompletableFuture<Config> load(UUID id) {
+        Config cached = get(id);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<Config> result = new CompletableFuture<Config>();
+        fetch(id, false).whenComplete((config, error) -> runSync(() -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(config);
+                evictExcess();
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * Writes every modified player config and waits for the writes to
+     * finish. Call this from your plugin's {@code onDisable}: players are
+     * not kicked (and quit listeners not called) before plugins disable.
+     */
+    public void flush() {
+        List<Map.Entry<UUID, Config>> entries;
+        synchronized (cache) {
+            entries = new ArrayList<Map.Entry<UUID, Config>>(cache.entrySet());
+        }
+        for (Map.Entry<UUID, Config> entry : entries) {
+            writeBehind(entry.getKey(), entry.getValue());
+        }
+        Config.flushAll(plugin);
+    }
+
+    File fileOf(UUID id) {
+        Format current = format;
+        String name = id + (current == Format.YAML ? ".yml" : current == Format.LOG ? ".log" : ".json");
+        return new File(new File(directory, shard(id)), name);
+    }
+
+    /**
+     * Two hex digits from the UUID's hash, giving 256 subdirectories.
+     */
+    private static String shard(UUID id) {
+        int bucket = (id.hashCode() ^ (id.hashCode() >>> 16)) & 0xff;
+        return bucket < 0x10 ? "0" + Integer.toHexString(bucket) : Integer.toHexString(bucket);
+    }
+
+    /**
+     * Loads the player's config once, however many callers ask for it at
+     * the same time. With {@code inline} the file is read on the calling
+     * thread, otherwise on a Bukkit async task.
+     */
+    private CompletableFuture<Config> fetch(UUID id, boolean inline) {
+        CompletableFuture<Config> created = new CompletableFuture<Config>();
+        CompletableFuture<Config> existing = loading.putIfAbsent(id, created);
+        if (existing != null) {
+            return existing;
+        }
+        Config cached = get(id);
+        if (cached != null) {
+            loading.remove(id, created);
+            created.complete(cached);
+            return created;
+        }
+        Runnable task = () -> {
+            try {
+                Config config = read(id);
+                synchronized (cache) {
+                    Config raced = cache.get(id);
+                    if (raced != null) {
+                        config = raced;
+                    } else {
+                        cache.put(id, config);
+                    }
+                }
+                created.complete(config);
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+            } finally {
+                loading.remove(id, created);
+            }
+        };
+        if (inline || !plugin.isEnabled()) {
+            task.run();
+        } else {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+        }
+        return created;
+    }
+
+    private Config read(UUID id) {
+        CompletableFuture<Void> write = writing.get(id);
+        if (write != null) {
+            try {
+                write.get(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException ignored) {
+                // The write logs its own failure; read whatever is on disk.
+            }
+        }
+        File file = fileOf(id);
+        if (!file.exists()) {
+            migrateFlatFile(file);
+        }
+        Config config = Config.open(plugin, file, format, options);
+        config.install(config.readFromDisk(), null);
+        return config;
+    }
+
+    private void migrateFlatFile(File target) {
+        File flat = new File(directory, target.getName());
+        if (!flat.isFile()) {
+            return;
+        }
+        try {
+            target.getParentFile().mkdirs();
+            Files.move(flat.toPath(), target.toPath());
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to move player data file " + flat.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drops least recently used configs over capacity, skipping players
+     * who are online or about to join. Runs on the main thread.
+     */
+    private void evictExcess() {
+        List<Map.Entry<UUID, Config>> evicted = new ArrayList<Map.Entry<UUID, Config>>();
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            int excess = cache.size() - capacity;
+            Iterator<Map.Entry<UUID, Config>> it = cache.entrySet().iterator();
+            while (excess > 0 && it.hasNext()) {
+                Map.Entry<UUID, Config> entry = it.next();
+                if (isActive(entry.getKey(), now)) {
+                    continue;
+                }
+                evicted.add(entry);
+                it.remove();
+                excess--;
+            }
+        }
+        for (Map.Entry<UUID, Config> entry : evicted) {
+            writeBehind(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private boolean isActive(UUID id, long now) {
+        if (plugin.getServer().getPlayer(id) != null) {
+            return true;
+        }
+        Long pinned = joining.get(id);
+        if (pinned == null) {
+            return false;
+        }
+        if (now - pinned > LOGIN_GRACE_MILLIS) {
+            joining.remove(id, pinned);
+            return false;
+        }
+        return true;
+    }
+
+    private void writeBehind(UUID id, Config config) {
+        if (!config.isDirty()) {
+            return;
+        }
+        CompletableFuture<Void> write = config.saveAsync();
+        writing.put(id, write);
+        write.whenComplete((ignored, error) -> writing.remove(id, write));
+    }
+
+    private void runSync(Runnable task) {
+        if (plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTask(plugin, task);
+        } else {
+            task.run();
+        }
+    }
+
+    private final class LoginListener implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+            if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+                return;
+            }
+            UUID id = event.getUniqueId();
+            joining.put(id, System.currentTimeMillis());
+            try {
+                fetch(id, true).get(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                plugin.getLogger().warning("Failed to load player data for " + event.getName() + ": " + e);
+            }
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onQuit(PlayerQuitEvent event) {
+            UUID id = event.getPlayer().getUniqueId();
+            joining.remove(id);
+            Config config;
+            synchronized (cache) {
+                config = cache.get(id);
+            }
+            if (config != null) {
+                writeBehind(id, config);
+            }
+            evictExcess();
+        }
+    }
+}
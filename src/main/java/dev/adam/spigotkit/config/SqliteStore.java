@@ -0,0 +1,527 @@
+package dev.adam.spigotkit.config;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Database behind {@link Format#SQLITE}.
+ *
+ * <p>Every leaf value is one row of {@code entries(path, value)}, keyed by
+ * its dotted path; sections are implicit. Because the primary key keeps
+ * paths sorted, a whole section is the range {@code [path + ".", path + "/")}
+ * and {@link #keys(String)} seeks from child to child instead of reading
+ * the section. Values use the {@link BinaryCache} encoding.</p>
+ *
+ * <p>{@link #set} only records the change in an in-memory overlay. A save
+ * hands the overlay to the {@link ConfigIO} thread, which applies it in one
+ * transaction on its own connection; until that commits, reads still see
+ * it. Reads use a second connection and are cached per path.</p>
+ */
+final class SqliteStore {
+
+    private static final int MAX_CACHED = 8192;
+
+    /**
+     * Marks a deleted path together with everything below it.
+     */
+    private static final JsonElement TOMBSTONE = JsonNull.INSTANCE;
+
+    private final File file;
+    private Connection reader;
+    private Connection writer;
+
+    /**
+     * Changes since the last save, keyed by path. Iterating in key order
+     * replays them correctly, see {@link #stage}.
+     */
+    private TreeMap<String, JsonElement> pending = new TreeMap<String, JsonElement>();
+
+    /**
+     * Overlays handed to the I/O thread and not committed yet, oldest first.
+     */
+    private final ArrayDeque<TreeMap<String, JsonElement>> inflight = new ArrayDeque<TreeMap<String, JsonElement>>();
+
+    private final TreeMap<String, JsonElement> values = new TreeMap<String, JsonElement>();
+    private final TreeMap<String, Set<String>> sections = new TreeMap<String, Set<String>>();
+
+    SqliteStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens the read connection and creates the table if needed.
+     */
+    synchronized void open() throws SQLException {
+        if (reader == null) {
+            reader = connect();
+        }
+    }
+
+    /**
+     * Drops unsaved changes and cached reads. Overlays already handed to
+     * the I/O thread still land.
+     */
+    synchronized void reset() {
+        pending = new TreeMap<String, JsonElement>();
+        values.clear();
+        sections.clear();
+    }
+
+    synchronized void close() {
+        closeQuietly(reader);
+        reader = null;
+        ConfigIO.run(() -> {
+            closeQuietly(writer);
+            writer = null;
+        });
+    }
+
+    /**
+     * Returns the value or section at {@code path}, or {@link JsonNull}.
+     */
+    synchronized JsonElement get(String path) throws SQLException {
+        JsonElement cached = values.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        TreeMap<String, JsonElement> rows = readRows(path);
+        for (TreeMap<String, JsonElement> layer : inflight) {
+            overlay(rows, layer, path);
+        }
+        overlay(rows, pending, path);
+        JsonElement result = toElement(rows, path);
+        if (values.size() >= MAX_CACHED) {
+            values.clear();
+        }
+        values.put(path, result);
+        return result;
+    }
+
+    /**
+     * Returns the whole tree, e.g. for snapshots.
+     */
+    JsonObject tree() throws SQLException {
+        JsonElement root = get("");
+        return root.isJsonObject() ? root.getAsJsonObject() : new JsonObject();
+    }
+
+    /**
+     * Returns the direct child keys of {@code path}.
+     */
+    synchronized Set<String> keys(String path) throws SQLException {
+        Set<String> cached = sections.get(path);
+        if (cached == null) {
+            cached = readChildren(path);
+            Set<String> emptied = new LinkedHashSet<String>();
+            for (TreeMap<String, JsonElement> layer : inflight) {
+                overlayChildren(cached, emptied, layer, path);
+            }
+            overlayChildren(cached, emptied, pending, path);
+            String base = path.isEmpty() ? "" : path + ".";
+            for (String child : emptied) {
+                if (cached.contains(child) && get(base + child).isJsonNull()) {
+                    cached.remove(child);
+                }
+            }
+            if (sections.size() >= MAX_CACHED) {
+                sections.clear();
+            }
+            sections.put(path, cached);
+        }
+        return new LinkedHashSet<String>(cached);
+    }
+
+    synchronized void set(String path, JsonElement value) {
+        stage(pending, path, value);
+        invalidate(path);
+    }
+
+    /**
+     * Queues the current overlay for one transaction on the I/O thread.
+     * If it fails, the changes go back under any made since, see
+     * {@link #requeue}.
+     */
+    synchronized CompletableFuture<Void> flush() {
+        TreeMap<String, JsonElement> batch = pending;
+        pending = new TreeMap<String, JsonElement>();
+        inflight.addLast(batch);
+        CompletableFuture<Void> write = ConfigIO.run(() -> {
+            try {
+                commit(batch);
+            } catch (SQLException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        });
+        write.whenComplete((ignored, error) -> requeue(batch, error != null));
+        return write;
+    }
+
+    /**
+     * Retires a finished overlay. Transactions complete in queue order, so
+     * {@code batch} is the oldest one in flight, and the next one has not
+     * started yet: this runs on the I/O thread right after the commit, or
+     * inside {@link #flush} if it already finished. A failed overlay is
+     * folded under the next one in flight, or under {@link #pending} if
+     * there is none, so a later failure cannot reorder it.
+     */
+    private synchronized void requeue(TreeMap<String, JsonElement> batch, boolean failed) {
+        inflight.remove(batch);
+        if (!failed) {
+            return;
+        }
+        TreeMap<String, JsonElement> next = inflight.peekFirst();
+        TreeMap<String, JsonElement> merged = batch;
+        for (Map.Entry<String, JsonElement> entry : (next != null ? next : pending).entrySet()) {
+            stage(merged, entry.getKey(), entry.getValue());
+        }
+        if (next != null) {
+            next.clear();
+            next.putAll(merged);
+        } else {
+            pending = merged;
+        }
+    }
+
+    /**
+     * Records a change in {@code layer}, dropping the entries it overrides.
+     *
+     * <p>Any change implies that its ancestors are sections, so leaf
+     * entries above it become tombstones (which still clear what the leaf
+     * replaced); a tombstone or leaf replaces everything below it. What
+     * remains never conflicts, except a tombstone followed by entries
+     * below it, and those sort after it. Key order therefore equals the
+     * order the changes were made in.</p>
+     */
+    private static void stage(TreeMap<String, JsonElement> layer, String path, JsonElement value) {
+        layer.subMap(path + ".", path + "/").clear();
+        for (int dot = path.indexOf('.'); dot >= 0; dot = path.indexOf('.', dot + 1)) {
+            String ancestor = path.substring(0, dot);
+            JsonElement existing = layer.get(ancestor);
+            if (existing != null && existing != TOMBSTONE) {
+                layer.put(ancestor, TOMBSTONE);
+            }
+        }
+        if (value == null || value.isJsonNull() || value.isJsonObject()) {
+            layer.put(path, TOMBSTONE);
+            if (value != null && value.isJsonObject()) {
+                for (Map.Entry<String, JsonElement> child : value.getAsJsonObject().entrySet()) {
+                    stage(layer, path + "." + child.getKey(), child.getValue());
+                }
+            }
+            return;
+        }
+        layer.put(path, value);
+    }
+
+    /**
+     * Applies {@code layer} to rows read for {@code path}.
+     */
+    private static void overlay(TreeMap<String, JsonElement> rows, TreeMap<String, JsonElement> layer, String path) {
+        if (layer.isEmpty()) {
+            return;
+        }
+        for (int dot = path.indexOf('.'); dot >= 0; dot = path.indexOf('.', dot + 1)) {
+            if (layer.containsKey(path.substring(0, dot))) {
+                // Replaced or removed above us: nothing older is left.
+                rows.clear();
+            }
+        }
+        for (Map.Entry<String, JsonElement> entry : scope(layer, path).entrySet()) {
+            String key = entry.getKey();
+            if (!within(key, path)) {
+                continue;
+            }
+            rows.subMap(key + ".", key + "/").clear();
+            for (int dot = key.indexOf('.'); dot >= 0; dot = key.indexOf('.', dot + 1)) {
+                rows.remove(key.substring(0, dot));
+            }
+            if (entry.getValue() == TOMBSTONE) {
+                rows.remove(key);
+            } else {
+                rows.put(key, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Applies {@code layer} to the child names of {@code path}. Children
+     * that had something deleted further down are added to {@code emptied},
+     * since only a full read can tell whether anything is left below them.
+     */
+    private static void overlayChildren(Set<String> children, Set<String> emptied,
+                                        TreeMap<String, JsonElement> layer, String path) {
+        if (layer.isEmpty()) {
+            return;
+        }
+        if (layer.containsKey(path)) {
+            children.clear();
+        }
+        for (int dot = path.indexOf('.'); dot >= 0; dot = path.indexOf('.', dot + 1)) {
+            if (layer.containsKey(path.substring(0, dot))) {
+                children.clear();
+            }
+        }
+        int start = path.isEmpty() ? 0 : path.length() + 1;
+        for (Map.Entry<String, JsonElement> entry : scope(layer, path).entrySet()) {
+            String key = entry.getKey();
+            if (key.length() <= start || !within(key, path)) {
+                continue;
+            }
+            int dot = key.indexOf('.', start);
+            String child = dot < 0 ? key.substring(start) : key.substring(start, dot);
+            if (entry.getValue() != TOMBSTONE) {
+                children.add(child);
+            } else if (dot < 0) {
+                children.remove(child);
+            } else {
+                emptied.add(child);
+            }
+        }
+    }
+
+    /**
+     * Entries of {@code layer} from {@code path} up to the end of its
+     * subtree; callers still filter with {@link #within}.
+     */
+    private static Map<String, JsonElement> scope(TreeMap<String, JsonElement> layer, String path) {
+        return path.isEmpty() ? layer : layer.subMap(path, true, path + "/", false);
+    }
+
+    private static boolean within(String key, String path) {
+        return path.isEmpty() || key.equals(path)
+                || (key.length() > path.length() && key.startsWith(path) && key.charAt(path.length()) == '.');
+    }
+
+    /**
+     * Drops cached reads that a change at {@code path} may affect: the path
+     * itself, everything below it and its ancestors.
+     */
+    private void invalidate(String path) {
+        values.remove(path);
+        values.subMap(path + ".", path + "/").clear();
+        sections.remove(path);
+        sections.subMap(path + ".", path + "/").clear();
+        values.remove("");
+        sections.remove("");
+        for (int dot = path.indexOf('.'); dot >= 0; dot = path.indexOf('.', dot + 1)) {
+            String ancestor = path.substring(0, dot);
+            values.remove(ancestor);
+            sections.remove(ancestor);
+        }
+    }
+
+    private static JsonElement toElement(TreeMap<String, JsonElement> rows, String path) {
+        if (rows.isEmpty()) {
+            return JsonNull.INSTANCE;
+        }
+        JsonElement exact = rows.get(path);
+        if (exact != null) {
+            return exact;
+        }
+        int start = path.isEmpty() ? 0 : path.length() + 1;
+        JsonObject root = new JsonObject();
+        for (Map.Entry<String, JsonElement> row : rows.entrySet()) {
+            JsonObject current = root;
+            String key = row.getKey();
+            int from = start;
+            for (int dot = key.indexOf('.', from); dot >= 0; dot = key.indexOf('.', from)) {
+                String segment = key.substring(from, dot);
+                JsonElement child = current.get(segment);
+                if (child == null || !child.isJsonObject()) {
+                    child = new JsonObject();
+                    current.add(segment, child);
+                }
+                current = child.getAsJsonObject();
+                from = dot + 1;
+            }
+            current.add(key.substring(from), row.getValue());
+        }
+        return root;
+    }
+
+    private TreeMap<String, JsonElement> readRows(String path) throws SQLException {
+        TreeMap<String, JsonElement> rows = new TreeMap<String, JsonElement>();
+        PreparedStatement statement;
+        if (path.isEmpty()) {
+            statement = reader().prepareStatement("SELECT path, value FROM entries");
+        } else {
+            statement = reader().prepareStatement("SELECT path, value FROM entries WHERE path >= ? AND path < ?");
+            statement.setString(1, path);
+            statement.setString(2, path + "/");
+        }
+        try {
+            ResultSet result = statement.executeQuery();
+            while (result.next()) {
+                String key = result.getString(1);
+                if (within(key, path)) {
+                    rows.put(key, decode(result.getBytes(2)));
+                }
+            }
+        } finally {
+            statement.close();
+        }
+        return rows;
+    }
+
+    /**
+     * Collects child names by seeking past each child's subtree, so a
+     * section with a few children but many rows below them costs a few
+     * index lookups.
+     */
+    private Set<String> readChildren(String path) throws SQLException {
+        Set<String> children = new LinkedHashSet<String>();
+        String base = path.isEmpty() ? "" : path + ".";
+        String end = path.isEmpty() ? null : path + "/";
+        String next = firstPath(base, true, end);
+        while (next != null) {
+            int dot = next.indexOf('.', base.length());
+            if (dot < 0) {
+                children.add(next.substring(base.length()));
+                next = firstPath(next, false, end);
+            } else {
+                children.add(next.substring(base.length(), dot));
+                // Everything up to "child/" is below "child.".
+                next = firstPath(next.substring(0, dot) + "/", true, end);
+            }
+        }
+        return children;
+    }
+
+    private String firstPath(String from, boolean inclusive, String end) throws SQLException {
+        String sql = "SELECT path FROM entries WHERE path " + (inclusive ? ">=" : ">") + " ?"
+                + (end != null ? " AND path < ?" : "") + " ORDER BY path LIMIT 1";
+        PreparedStatement statement = reader().prepareStatement(sql);
+        try {
+            statement.setString(1, from);
+            if (end != null) {
+                statement.setString(2, end);
+            }
+            ResultSet result = statement.executeQuery();
+            return result.next() ? result.getString(1) : null;
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Applies one overlay in a single transaction. Runs on the I/O thread.
+     * Entries never conflict (see {@link #stage}), so all deletes can run
+     * before all inserts.
+     */
+    private void commit(TreeMap<String, JsonElement> batch) throws SQLException {
+        if (writer == null) {
+            writer = connect();
+        }
+        writer.setAutoCommit(false);
+        PreparedStatement deleteExact = writer.prepareStatement("DELETE FROM entries WHERE path = ?");
+        PreparedStatement deleteRange = writer.prepareStatement("DELETE FROM entries WHERE path > ? AND path < ?");
+        PreparedStatement insert = writer.prepareStatement("INSERT OR REPLACE INTO entries (path, value) VALUES (?, ?)");
+        try {
+            for (Map.Entry<String, JsonElement> entry : batch.entrySet()) {
+                String path = entry.getKey();
+                deleteRange.setString(1, path + ".");
+                deleteRange.setString(2, path + "/");
+                deleteRange.addBatch();
+                for (int dot = path.indexOf('.'); dot >= 0; dot = path.indexOf('.', dot + 1)) {
+                    deleteExact.setString(1, path.substring(0, dot));
+                    deleteExact.addBatch();
+                }
+                if (entry.getValue() == TOMBSTONE) {
+                    deleteExact.setString(1, path);
+                    deleteExact.addBatch();
+                    continue;
+                }
+                insert.setString(1, path);
+                insert.setBytes(2, encode(entry.getValue()));
+                insert.addBatch();
+            }
+            deleteRange.executeBatch();
+            deleteExact.executeBatch();
+            insert.executeBatch();
+            writer.commit();
+        } catch (SQLException e) {
+            writer.rollback();
+            throw e;
+        } finally {
+            deleteExact.close();
+            deleteRange.close();
+            insert.close();
+            writer.setAutoCommit(true);
+        }
+    }
+
+    private Connection reader() throws SQLException {
+        if (reader == null) {
+            reader = connect();
+        }
+        return reader;
+    }
+
+    private Connection connect() throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("SQLite JDBC driver not found", e);
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        Statement statement = connection.createStatement();
+        try {
+            statement.execute("PRAGMA journal_mode=WAL");
+            statement.execute("PRAGMA synchronous=NORMAL");
+            statement.execute("CREATE TABLE IF NOT EXISTS entries (path TEXT PRIMARY KEY, value BLOB NOT NULL) WITHOUT ROWID");
+        } finally {
+            statement.close();
+        }
+        return connection;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private static byte[] encode(JsonElement value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            BinaryCache.writeJson(out, value);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JsonElement decode(byte[] bytes) {
+        return BinaryCache.toJson(BinaryCache.readValue(ByteBuffer.wrap(bytes)));
+    }
+}
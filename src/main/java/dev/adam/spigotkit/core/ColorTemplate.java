@@ -0,0 +1,178 @@
+package dev.adam.spigotkit.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message with color codes already translated and {@code {name}}
+ * placeholders split out, created by {@link ColorUtil#compile(String)}.
+ *
+ * <p>Rendering only concatenates the pre-colored pieces with the given
+ * values. Values are inserted as-is, so color codes typed by players are
+ * not translated.</p>
+ *
+ * <pre>
+ * private static final ColorTemplate JOINED = ColorUtil.compile("&amp;e{player} &amp;7joined ({count} online)");
+ *
+ * String line = JOINED.render(player.getName(), online);
+ * </pre>
+ */
+public final class ColorTemplate {
+
+    private static final int MAX_BUFFER_CAPACITY = 1024;
+
+    /**
+     * Per-thread render buffer, so rendering only allocates the result.
+     */
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final String text;
+    private final String[] literals;
+    private final int[] slots;
+    private final List<String> names;
+    private final int literalLength;
+
+    private ColorTemplate(String text, String[] literals, int[] slots, List<String> names) {
+        this.text = text;
+        this.literals = literals;
+        this.slots = slots;
+        this.names = names;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Splits an already colored string on {@code {name}} placeholders.
+     * Names may contain letters, digits, {@code _}, {@code -} and {@code .};
+     * other braces are kept as literal text.
+     */
+    static ColorTemplate parse(String colored) {
+        List<String> literals = new ArrayList<String>();
+        List<Integer> slots = new ArrayList<Integer>();
+        List<String> names = new ArrayList<String>();
+        int start = 0;
+        int i = colored.indexOf('{');
+        while (i >= 0) {
+            int end = i + 1;
+            while (end < colored.length() && isNameChar(colored.charAt(end))) {
+                end++;
+            }
+            if (end > i + 1 && end < colored.length() && colored.charAt(end) == '}') {
+                String name = colored.substring(i + 1, end);
+                int slot = names.indexOf(name);
+                if (slot < 0) {
+                    slot = names.size();
+                    names.add(name);
+                }
+                literals.add(colored.substring(start, i));
+                slots.add(slot);
+                start = end + 1;
+                i = colored.indexOf('{', start);
+            } else {
+                i = colored.indexOf('{', i + 1);
+            }
+        }
+        literals.add(colored.substring(start));
+        int[] slotArray = new int[slots.size()];
+        for (int s = 0; s < slotArray.length; s++) {
+            slotArray[s] = slots.get(s);
+        }
+        return new ColorTemplate(colored, literals.toArray(new String[0]), slotArray,
+                Collections.unmodifiableList(names));
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+    }
+
+    /**
+     * The colored message with placeholders left in place.
+     */
+    public String text() {
+        return text;
+    }
+
+    /**
+     * Distinct placeholder names, in order of first appearance. This is
+     * the order {@link #render(Object...)} expects values in.
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    public boolean hasPlaceholders() {
+        return slots.length > 0;
+    }
+
+    /**
+     * Fills placeholders by position (see {@link #names()}). Missing
+     * values leave the placeholder text in place.
+     */
+    public String render(Object... values) {
+        return render(values, null);
+    }
+
+    /**
+     * Renders with {@code values} indexed through {@code remap}: slot
+     * {@code i} (see {@link #names()}) takes {@code values[remap[i]]}.
+     * A {@code null} remap means identity.
+     */
+    String render(Object[] values, int[] remap) {
+        if (slots.length == 0) {
+            return text;
+        }
+        StringBuilder sb = BUFFER.get();
+        if (sb.capacity() > MAX_BUFFER_CAPACITY) {
+            sb = new StringBuilder(literalLength + 16 * slots.length);
+            BUFFER.set(sb);
+        }
+        sb.setLength(0);
+        for (int i = 0; i < slots.length; i++) {
+            sb.append(literals[i]);
+            int slot = slots[i];
+            int index = remap != null ? remap[slot] : slot;
+            if (values != null && index >= 0 && index < values.length) {
+                sb.append(values[index]);
+            } else {
+                sb.append('{').append(names.get(slot)).append('}');
+            }
+        }
+        return sb.append(literals[slots.length]).toString();
+    }
+
+    /**
+     * Fills placeholders by name. Missing names leave the placeholder text
+     * in place.
+     */
+    public String render(Map<String, ?> values) {
+        if (slots.length == 0) {
+            return text;
+        }
+        Object[] byPosition = new Object[names.size()];
+        for (int i = 0; i < byPosition.length; i++) {
+            String name = names.get(i);
+            byPosition[i] = values.containsKey(name) ? values.get(name) : "{" + name + "}";
+        }
+        return render(byPosition);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ColorTemplate && text.equals(((ColorTemplate) o).text));
+    }
+
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+}
@@ -2,11 +2,37 @@ package dev.adam.spigotkit.core;
 
 import org.bukkit.ChatColor;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Utility methods for translating color codes in messages.
+ *
+ * <p>Supports legacy {@code &} codes ({@code &a}, {@code &l}, ...) and hex
+ * colors written as {@code &#rrggbb}. Translated strings are kept in a
+ * small cache, since most messages are the same constants every time.
+ * The cache is read without locking, so async chat threads do not queue
+ * up behind each other.</p>
  */
 public final class ColorUtil {
 
+    private static final int CACHE_SIZE = 512;
+
+    /**
+     * Longer strings are usually one-off (books, MOTDs) and not worth
+     * caching.
+     */
+    private static final int MAX_CACHED_LENGTH = 256;
+
+    private static final String CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx";
+
+    /**
+     * Two generations approximate an LRU: once {@link #recent} is full it
+     * becomes {@link #older}, and hits in {@link #older} are copied back.
+     * Whatever was not used during a whole generation is dropped.
+     */
+    private static volatile ConcurrentHashMap<String, ColorTemplate> recent = new ConcurrentHashMap<String, ColorTemplate>();
+    private static volatile ConcurrentHashMap<String, ColorTemplate> older = new ConcurrentHashMap<String, ColorTemplate>();
+
     private ColorUtil() {
     }
 
@@ -20,6 +46,98 @@ public final class ColorUtil {
         if (message == null) {
             return null;
         }
-        return ChatColor.translateAlternateColorCodes('&', message);
+        if (message.indexOf('&') < 0) {
+            return message;
+        }
+        return compile(message).text();
+    }
+
+    /**
+     * Translates color codes once and splits out {@code {name}}
+     * placeholders. Keep the result in a constant for messages sent often;
+     * repeated calls with the same string are also served from a cache.
+     *
+     * @param message input message, must not be null
+     */
+    public static ColorTemplate compile(String message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Message must not be null");
+        }
+        if (message.length() > MAX_CACHED_LENGTH) {
+            return ColorTemplate.parse(translate(message));
+        }
+        ColorTemplate template = recent.get(message);
+        if (template != null) {
+            return template;
+        }
+        template = older.get(message);
+        if (template == null) {
+            template = ColorTemplate.parse(translate(message));
+        }
+        cache(message, template);
+        return template;
+    }
+
+    private static void cache(String message, ColorTemplate template) {
+        ConcurrentHashMap<String, ColorTemplate> current = recent;
+        if (current.size() >= CACHE_SIZE) {
+            synchronized (ColorUtil.class) {
+                if (recent == current) {
+                    older = current;
+                    current = new ConcurrentHashMap<String, ColorTemplate>();
+                    recent = current;
+                } else {
+                    current = recent;
+                }
+            }
+        }
+        current.put(message, template);
+    }
+
+    /**
+     * Single pass over {@code message} replacing {@code &x} codes and
+     * {@code &#rrggbb} hex colors.
+     */
+    static String translate(String message) {
+        int length = message.length();
+        StringBuilder sb = null;
+        int copied = 0;
+        for (int i = 0; i < length - 1; i++) {
+            if (message.charAt(i) != '&') {
+                continue;
+            }
+            char next = message.charAt(i + 1);
+            if (next == '#' && i + 8 <= length && isHex(message, i + 2, i + 8)) {
+                if (sb == null) {
+                    sb = new StringBuilder(length + 16);
+                }
+                sb.append(message, copied, i).append(ChatColor.COLOR_CHAR).append('x');
+                for (int j = i + 2; j < i + 8; j++) {
+                    sb.append(ChatColor.COLOR_CHAR).append(Character.toLowerCase(message.charAt(j)));
+                }
+                i += 7;
+                copied = i + 1;
+            } else if (CODES.indexOf(next) >= 0) {
+                if (sb == null) {
+                    sb = new StringBuilder(length);
+                }
+                sb.append(message, copied, i).append(ChatColor.COLOR_CHAR).append(Character.toLowerCase(next));
+                i++;
+                copied = i + 1;
+            }
+        }
+        if (sb == null) {
+            return message;
+        }
+        return sb.append(message, copied, length).toString();
+    }
+
+    private static boolean isHex(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (Character.digit(s.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,282 @@
+package dev.adam.spigotkit.core;
+
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queued, rate-limited delivery of chat messages and action bars.
+ *
+ * <p>Each send renders its {@link MessageTemplate} once per distinct
+ * locale variant among the recipients, not once per player. Deliveries
+ * are queued and flushed on the main thread, at most
+ * {@link #budget(int) budget} per tick, so a broadcast to hundreds of
+ * players is spread over several ticks instead of spiking one.</p>
+ *
+ * <pre>
+ * MessageService messages = MessageService.create(this).budget(100);
+ *
+ * messages.broadcast(RESTART_WARNING, minutes);
+ * messages.broadcast("myplugin.staff", REPORT_ALERT, reporter, target);
+ * messages.actionBar(arena.players(), COUNTDOWN, seconds);
+ * </pre>
+ *
+ * <p>All methods may be called from any thread. Recipients are checked
+ * (online, permission) on the main thread when their message is
+ * delivered. When the plugin disables, whatever is still queued is
+ * delivered at once; later sends from other threads fail.</p>
+ */
+public final class MessageService {
+
+    private static final int DEFAULT_BUDGET = 200;
+
+    private final Plugin plugin;
+    private final ConcurrentLinkedQueue<Delivery> queue = new ConcurrentLinkedQueue<Delivery>();
+    private volatile int budget = DEFAULT_BUDGET;
+    private BukkitTask task;
+    private boolean listening;
+
+    private MessageService(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public static MessageService create(Plugin plugin) {
+        if (plugin == null) {
+            throw new IllegalArgumentException("Plugin must not be null");
+        }
+        return new MessageService(plugin);
+    }
+
+    /**
+     * Maximum deliveries per tick. Defaults to {@value #DEFAULT_BUDGET}.
+     */
+    public MessageService budget(int perTick) {
+        if (perTick < 1) {
+            throw new IllegalArgumentException("Budget must be at least 1");
+        }
+        this.budget = perTick;
+        return this;
+    }
+
+    /**
+     * Sends a chat message to every online player and the console.
+     *
+     * @return completes with the number of messages delivered
+     */
+    public CompletableFuture<Integer> broadcast(MessageTemplate template, Object... values) {
+        List<CommandSender> recipients = new ArrayList<CommandSender>(plugin.getServer().getOnlinePlayers());
+        recipients.add(plugin.getServer().getConsoleSender());
+        return send(recipients, template, values);
+    }
+
+    /**
+     * Sends a chat message to online players with {@code permission}, and
+     * the console. The permission is checked when each message goes out.
+     */
+    public CompletableFuture<Integer> broadcast(String permission, MessageTemplate template, Object... values) {
+        List<CommandSender> recipients = new ArrayList<CommandSender>(plugin.getServer().getOnlinePlayers());
+        recipients.add(plugin.getServer().getConsoleSender());
+        return enqueue(recipients, permission, template, values);
+    }
+
+    /**
+     * Sends a chat message to each recipient.
+     */
+    public CompletableFuture<Integer> send(Collection<? extends CommandSender> recipients,
+                                           MessageTemplate template, Object... values) {
+        return enqueue(recipients, null, template, values);
+    }
+
+    private CompletableFuture<Integer> enqueue(Collection<? extends CommandSender> recipients, String permission,
+                                               MessageTemplate template, Object... values) {
+        Batch batch = new Batch(recipients.size());
+        Map<Object, String> rendered = new HashMap<Object, String>();
+        for (CommandSender recipient : recipients) {
+            Object key = template.variantKey(recipient);
+            String text = rendered.get(key);
+            if (text == null) {
+                text = template.renderVariant(key, values);
+                rendered.put(key, text);
+            }
+            queue.add(new Delivery(recipient, permission, text, null, batch));
+        }
+        return schedule(batch);
+    }
+
+    /**
+     * Shows an action bar to each player.
+     */
+    public CompletableFuture<Integer> actionBar(Collection<? extends Player> players,
+                                                MessageTemplate template, Object... values) {
+        Batch batch = new Batch(players.size());
+        Map<Object, BaseComponent[]> rendered = new HashMap<Object, BaseComponent[]>();
+        for (Player player : players) {
+            Object key = template.variantKey(player);
+            BaseComponent[] components = rendered.get(key);
+            if (components == null) {
+                components = TextComponent.fromLegacyText(template.renderVariant(key, values));
+                rendered.put(key, components);
+            }
+            queue.add(new Delivery(player, null, null, components, batch));
+        }
+        return schedule(batch);
+    }
+
+    /**
+     * Actions waiting to be delivered.
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    /**
+     * Delivers everything queued right now, ignoring the budget. Must be
+     * called on the main thread. Happens on its own when the plugin
+     * disables.
+     */
+    public void flush() {
+        drain(Integer.MAX_VALUE);
+    }
+
+    private CompletableFuture<Integer> schedule(Batch batch) {
+        if (batch.remaining.get() == 0) {
+            batch.future.complete(0);
+            return batch.future;
+        }
+        synchronized (this) {
+            if (plugin.isEnabled()) {
+                if (!listening) {
+                    plugin.getServer().getPluginManager().registerEvents(new DisableListener(), plugin);
+                    listening = true;
+                }
+                if (task == null) {
+                    task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+                }
+                return batch.future;
+            }
+        }
+        // No tick will come anymore.
+        if (plugin.getServer().isPrimaryThread()) {
+            flush();
+        } else {
+            discard();
+        }
+        return batch.future;
+    }
+
+    private void tick() {
+        drain(budget);
+        synchronized (this) {
+            if (queue.isEmpty() && task != null) {
+                task.cancel();
+                task = null;
+            }
+        }
+    }
+
+    private void discard() {
+        IllegalStateException error = new IllegalStateException(plugin.getName() + " is disabled");
+        Delivery delivery;
+        while ((delivery = queue.poll()) != null) {
+            delivery.batch.future.completeExceptionally(error);
+        }
+    }
+
+    private void drain(int limit) {
+        Delivery delivery;
+        for (int sent = 0; sent < limit && (delivery = queue.poll()) != null; sent++) {
+            boolean delivered = false;
+            try {
+                delivered = delivery.deliver();
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Failed to deliver message: " + e.getMessage());
+            }
+            delivery.batch.done(delivered);
+        }
+    }
+
+    private static final class Delivery {
+
+        private final CommandSender recipient;
+        private final String permission;
+        private final String text;
+        private final BaseComponent[] actionBar;
+        private final Batch batch;
+
+        private Delivery(CommandSender recipient, String permission, String text, BaseComponent[] actionBar, Batch batch) {
+            this.recipient = recipient;
+            this.permission = permission;
+            this.text = text;
+            this.actionBar = actionBar;
+            this.batch = batch;
+        }
+
+        private boolean deliver() {
+            if (recipient instanceof Player && !((Player) recipient).isOnline()) {
+                return false;
+            }
+            if (permission != null && !recipient.hasPermission(permission)) {
+                return false;
+            }
+            if (actionBar != null) {
+                ((Player) recipient).spigot().sendMessage(ChatMessageType.ACTION_BAR, actionBar);
+            } else if (!text.isEmpty()) {
+                recipient.sendMessage(text);
+            }
+            return true;
+        }
+    }
+
+    private final class DisableListener implements Listener {
+
+        @EventHandler
+        public void onDisable(PluginDisableEvent event) {
+            if (event.getPlugin() != plugin) {
+                return;
+            }
+            flush();
+            synchronized (MessageService.this) {
+                if (task != null) {
+                    task.cancel();
+                    task = null;
+                }
+            }
+        }
+    }
+
+    private static final class Batch {
+
+        private final AtomicInteger remaining;
+        private final AtomicInteger delivered = new AtomicInteger();
+        private final CompletableFuture<Integer> future = new CompletableFuture<Integer>();
+
+        private Batch(int size) {
+            this.remaining = new AtomicInteger(size);
+        }
+
+        private void done(boolean success) {
+            if (success) {
+                delivered.incrementAndGet();
+            }
+            if (remaining.decrementAndGet() == 0) {
+                future.complete(delivered.get());
+            }
+        }
+    }
+}
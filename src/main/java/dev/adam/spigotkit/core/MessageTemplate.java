@@ -0,0 +1,191 @@
+package dev.adam.spigotkit.core;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, colored message with {@code {name}} placeholders and
+ * optional per-locale variants.
+ *
+ * <p>The text is color-translated and split into segments once. Values
+ * are passed in the order of {@link #names()}, which comes from the
+ * default text; locale variants may use the placeholders in any order.
+ * Templates are safe to render from any thread.</p>
+ *
+ * <pre>
+ * MessageTemplate greeting = MessageTemplate.of("&amp;aWelcome, {player}!")
+ *     .withLocale("de_de", "&amp;aWillkommen, {player}!");
+ *
+ * player.sendMessage(greeting.render(player, player.getName()));
+ * </pre>
+ */
+public final class MessageTemplate {
+
+    private final String defaultText;
+    private final ColorTemplate defaults;
+    private final Map<String, Variant> locales;
+
+    private MessageTemplate(String defaultText, ColorTemplate defaults, Map<String, Variant> locales) {
+        this.defaultText = defaultText;
+        this.defaults = defaults;
+        this.locales = locales;
+    }
+
+    /**
+     * @param text default text with {@code &} color codes and
+     *             {@code {name}} placeholders
+     */
+    public static MessageTemplate of(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Message text must not be null");
+        }
+        return new MessageTemplate(text, ColorUtil.compile(text), Collections.<String, Variant>emptyMap());
+    }
+
+    /**
+     * Converts a legacy {@link String#format} message: each {@code %s} in
+     * turn becomes the next name from {@code names}.
+     */
+    public static MessageTemplate fromLegacy(String text, String... names) {
+        if (text == null || text.indexOf('%') < 0) {
+            return of(text);
+        }
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        int next = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%' && i + 1 < text.length()) {
+                char spec = text.charAt(i + 1);
+                if (spec == 's' && next < names.length) {
+                    sb.append('{').append(names[next++]).append('}');
+                    i++;
+                    continue;
+                }
+                if (spec == '%') {
+                    sb.append('%');
+                    i++;
+                    continue;
+                }
+            }
+            sb.append(c);
+        }
+        return of(sb.toString());
+    }
+
+    /**
+     * Returns a copy with a variant for {@code locale} (e.g. {@code "de_de"},
+     * or just {@code "de"} for every German locale).
+     */
+    public MessageTemplate withLocale(String locale, String text) {
+        if (locale == null || text == null) {
+            throw new IllegalArgumentException("Locale and text must not be null");
+        }
+        ColorTemplate compiled = ColorUtil.compile(text);
+        int[] remap = new int[compiled.names().size()];
+        List<String> canonical = defaults.names();
+        for (int i = 0; i < remap.length; i++) {
+            remap[i] = canonical.indexOf(compiled.names().get(i));
+        }
+        Map<String, Variant> copy = new HashMap<String, Variant>(locales);
+        copy.put(locale.toLowerCase(Locale.ROOT), new Variant(compiled, remap));
+        return new MessageTemplate(defaultText, defaults, Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * The default text as given, before color translation.
+     */
+    public String text() {
+        return defaultText;
+    }
+
+    /**
+     * Placeholder names, in the order {@code render} expects values.
+     */
+    public List<String> names() {
+        return defaults.names();
+    }
+
+    /**
+     * Renders the default text.
+     */
+    public String render(Object... values) {
+        return defaults.render(values, null);
+    }
+
+    /**
+     * Renders the variant matching the recipient's client locale, falling
+     * back to its language and then to the default text.
+     */
+    public String render(CommandSender recipient, Object... values) {
+        return renderVariant(variantKey(recipient), values);
+    }
+
+    /**
+     * Identifies the text variant {@code recipient} gets. Recipients with
+     * the same key receive the same rendering, so bulk senders render once
+     * per key.
+     */
+    Object variantKey(CommandSender recipient) {
+        if (locales.isEmpty() || !(recipient instanceof Player)) {
+            return this;
+        }
+        Variant variant = variant(((Player) recipient).getLocale());
+        return variant != null ? variant : this;
+    }
+
+    String renderVariant(Object variantKey, Object[] values) {
+        if (variantKey instanceof Variant) {
+            Variant variant = (Variant) variantKey;
+            return variant.template.render(values, variant.remap);
+        }
+        return defaults.render(values, null);
+    }
+
+    /**
+     * Renders for {@code recipient} and sends the result, skipping empty
+     * messages.
+     */
+    public void send(CommandSender recipient, Object... values) {
+        String message = render(recipient, values);
+        if (!message.isEmpty()) {
+            recipient.sendMessage(message);
+        }
+    }
+
+    private Variant variant(String locale) {
+        if (locale == null) {
+            return null;
+        }
+        String key = locale.toLowerCase(Locale.ROOT);
+        Variant variant = locales.get(key);
+        if (variant == null) {
+            int separator = key.indexOf('_');
+            if (separator > 0) {
+                variant = locales.get(key.substring(0, separator));
+            }
+        }
+        return variant;
+    }
+
+    @Override
+    public String toString() {
+        return defaultText;
+    }
+
+    private static final class Variant {
+
+        private final ColorTemplate template;
+        private final int[] remap;
+
+        private Variant(ColorTemplate template, int[] remap) {
+            this.template = template;
+            this.remap = remap;
+        }
+    }
+}
@@ -2,52 +2,113 @@ package dev.adam.spigotkit.core;
 
 import dev.adam.spigotkit.config.Config;
 import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.Plugin;
 
+import java.util.Set;
+
 /**
  * Central message templates used by SpigotKit. These can be overridden
  * at runtime by plugins if desired.
+ *
+ * <p>Each message is a {@link MessageTemplate}: colors and placeholders
+ * are parsed once, and the {@link CommandSender} overloads pick the
+ * recipient's locale variant. Setters and config values may use either
+ * the named placeholders listed below or the legacy {@code %s}.</p>
  */
 public final class Messages {
 
-    private static String noPermission = ChatColor.RED + "You do not have permission to do that.";
-    private static String playerOnly = ChatColor.RED + "Only players may use this command.";
-    private static String error = ChatColor.RED + "An internal error occurred while attempting to perform this command.";
-    private static String unknownSubcommand = ChatColor.RED + "Unknown subcommand. Use /%s for help.";
+    private static volatile MessageTemplate noPermission = MessageTemplate.of(ChatColor.RED + "You do not have permission to do that.");
+    private static volatile MessageTemplate playerOnly = MessageTemplate.of(ChatColor.RED + "Only players may use this command.");
+    private static volatile MessageTemplate error = MessageTemplate.of(ChatColor.RED + "An internal error occurred while attempting to perform this command.");
+    private static volatile MessageTemplate unknownSubcommand = MessageTemplate.of(ChatColor.RED + "Unknown subcommand. Use /{label} for help.");
+    private static volatile MessageTemplate cooldown = MessageTemplate.of(ChatColor.RED + "Please wait {time} before using this command again.");
+    private static volatile MessageTemplate invalidArgument = MessageTemplate.of(ChatColor.RED + "Invalid {name}: {input}");
 
     private Messages() {
     }
 
     public static String noPermission() {
-        return noPermission;
+        return noPermission.render();
+    }
+
+    public static String noPermission(CommandSender recipient) {
+        return noPermission.render(recipient);
     }
 
     public static String playerOnly() {
-        return playerOnly;
+        return playerOnly.render();
+    }
+
+    public static String playerOnly(CommandSender recipient) {
+        return playerOnly.render(recipient);
     }
 
     public static String error() {
-        return error;
+        return error.render();
+    }
+
+    public static String error(CommandSender recipient) {
+        return error.render(recipient);
     }
 
+    /**
+     * Placeholder: {@code {label}}.
+     */
     public static String unknownSubcommand(String label) {
-        return String.format(unknownSubcommand, label);
+        return unknownSubcommand.render(label);
+    }
+
+    public static String unknownSubcommand(CommandSender recipient, String label) {
+        return unknownSubcommand.render(recipient, label);
+    }
+
+    /**
+     * Placeholder: {@code {time}}, formatted time left, e.g. {@code "3s"}
+     * or {@code "1m 30s"}.
+     */
+    public static String cooldown(String remaining) {
+        return cooldown.render(remaining);
+    }
+
+    public static String cooldown(CommandSender recipient, String remaining) {
+        return cooldown.render(recipient, remaining);
+    }
+
+    /**
+     * Placeholders: {@code {name}}, the argument name as declared on the
+     * command, and {@code {input}}, what the sender typed.
+     */
+    public static String invalidArgument(String name, String input) {
+        return invalidArgument.render(name, input);
+    }
+
+    public static String invalidArgument(CommandSender recipient, String name, String input) {
+        return invalidArgument.render(recipient, name, input);
     }
 
     public static void setNoPermission(String message) {
-        noPermission = message;
+        noPermission = MessageTemplate.of(message);
     }
 
     public static void setPlayerOnly(String message) {
-        playerOnly = message;
+        playerOnly = MessageTemplate.of(message);
     }
 
     public static void setError(String message) {
-        error = message;
+        error = MessageTemplate.of(message);
     }
 
     public static void setUnknownSubcommand(String messageTemplate) {
-        unknownSubcommand = messageTemplate;
+        unknownSubcommand = MessageTemplate.fromLegacy(messageTemplate, "label");
+    }
+
+    public static void setCooldown(String messageTemplate) {
+        cooldown = MessageTemplate.fromLegacy(messageTemplate, "time");
+    }
+
+    public static void setInvalidArgument(String messageTemplate) {
+        invalidArgument = MessageTemplate.fromLegacy(messageTemplate, "name", "input");
     }
 
     /**
@@ -59,17 +120,38 @@ public final class Messages {
      *   <li>player-only</li>
      *   <li>error</li>
      *   <li>unknown-subcommand</li>
+     *   <li>cooldown</li>
+     *   <li>invalid-argument</li>
      * </ul>
+     * Per-locale variants go under {@code locales.<locale>} with the same
+     * keys, e.g. {@code messages.locales.de_de.no-permission}. A locale
+     * may also be a bare language such as {@code de}.
      */
     public static void loadFromConfig(Config config, String basePath) {
         if (config == null) {
             return;
         }
         String prefix = basePath == null || basePath.isEmpty() ? "" : basePath + ".";
-        noPermission = config.getString(prefix + "no-permission", noPermission);
-        playerOnly = config.getString(prefix + "player-only", playerOnly);
-        error = config.getString(prefix + "error", error);
-        unknownSubcommand = config.getString(prefix + "unknown-subcommand", unknownSubcommand);
+        Set<String> locales = config.getSectionKeys(prefix + "locales");
+        noPermission = load(config, prefix, locales, "no-permission", noPermission);
+        playerOnly = load(config, prefix, locales, "player-only", playerOnly);
+        error = load(config, prefix, locales, "error", error);
+        unknownSubcommand = load(config, prefix, locales, "unknown-subcommand", unknownSubcommand, "label");
+        cooldown = load(config, prefix, locales, "cooldown", cooldown, "time");
+        invalidArgument = load(config, prefix, locales, "invalid-argument", invalidArgument, "name", "input");
+    }
+
+    private static MessageTemplate load(Config config, String prefix, Set<String> locales, String key,
+                                        MessageTemplate current, String... legacyNames) {
+        String text = config.getString(prefix + key);
+        MessageTemplate template = text != null ? MessageTemplate.fromLegacy(text, legacyNames) : current;
+        for (String locale : locales) {
+            String localized = config.getString(prefix + "locales." + locale + "." + key);
+            if (localized != null) {
+                template = template.withLocale(locale, MessageTemplate.fromLegacy(localized, legacyNames).text());
+            }
+        }
+        return template;
     }
 
     /**